@@ -0,0 +1,100 @@
+package bench;
+
+import core.Board;
+import core.Move;
+
+import java.util.SplittableRandom;
+
+// Fixed position suite shared by the benchmarks. Positions are reached by replaying
+// coordinate moves ("e2e4") from the starting position so they go through the normal rules.
+public final class BenchmarkPositions {
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+    public static final String NEAR_MATE = "nearMate";
+
+    // Ruy Lopez after 3...a6.
+    private static final String OPENING_LINE = "e2e4 e7e5 g1f3 b8c6 f1b5 a7a6";
+
+    // Closed Ruy Lopez, Breyer variation after 10.d4 Nbd7.
+    private static final String MIDDLEGAME_LINE = OPENING_LINE
+            + " b5a4 g8f6 e1g1 f8e7 f1e1 b7b5 a4b3 d7d6 c2c3 e8g8 h2h3 c6b8 d2d4 b8d7";
+
+    // Fool's mate, black to play d8h4 mate.
+    private static final String CHECKMATE_LINE = "f2f3 e7e5 g2g4";
+    public static final String CHECKMATE_MOVE = "d8h4";
+
+    // Sam Loyd's ten-move stalemate, white to play e6 stalemate.
+    private static final String STALEMATE_LINE = "e2e3 a7a5 d1h5 a8a6 h5a5 h7h5 h2h4 a6h6 a5c7 f7f6 c7d7 e8f7"
+            + " d7b7 d8d3 b7b8 d3h7 b8c8 f7g6";
+    public static final String STALEMATE_MOVE = "c8e6";
+
+    private BenchmarkPositions() {
+    }
+
+    public static Board position(String name) {
+        switch (name) {
+            case OPENING:
+                return replay(OPENING_LINE);
+            case MIDDLEGAME:
+                return replay(MIDDLEGAME_LINE);
+            case ENDGAME:
+                return tradeDown(replay(MIDDLEGAME_LINE), 8);
+            case NEAR_MATE:
+                return replay(CHECKMATE_LINE);
+            default:
+                throw new IllegalArgumentException("Unknown position " + name);
+        }
+    }
+
+    public static Board checkmateSetup() {
+        return replay(CHECKMATE_LINE);
+    }
+
+    public static Board stalemateSetup() {
+        return replay(STALEMATE_LINE);
+    }
+
+    public static Board replay(String line) {
+        Board board = new Board();
+        board.setupStartingPosition();
+        for (String move : line.split(" ")) {
+            play(board, move);
+        }
+        return board;
+    }
+
+    public static void play(Board board, String move) {
+        int startY = move.charAt(0) - 'a';
+        int startX = '8' - move.charAt(1);
+        int endY = move.charAt(2) - 'a';
+        int endX = '8' - move.charAt(3);
+        if (!board.movePiece(startX, startY, endX, endY)) {
+            throw new IllegalStateException(move + ": " + board.getStatusMessage());
+        }
+        if (board.hasPendingPromotion()) {
+            board.promotePendingPawn("Queen");
+        }
+    }
+
+    // Plays a fixed-seed game that prefers captures until at most the given number of pieces remain.
+    private static Board tradeDown(Board board, int pieces) {
+        SplittableRandom random = new SplittableRandom(2024);
+        int[] moves = new int[Board.MAX_MOVES];
+        while (board.getOccupancy() != 0 && Long.bitCount(board.getOccupancy()) > pieces) {
+            int count = board.generateLegalMoves(moves);
+            if (count == 0) {
+                throw new IllegalStateException("Trade-down game ended early.");
+            }
+            int chosen = moves[random.nextInt(count)];
+            for (int i = 0; i < count; i++) {
+                if (Move.isCapture(moves[i])) {
+                    chosen = moves[i];
+                    break;
+                }
+            }
+            play(board, Move.toUci(chosen).substring(0, 4));
+        }
+        return board;
+    }
+}
@@ -0,0 +1,115 @@
+package bench;
+
+import core.Board;
+import core.Move;
+import core.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Rules-engine hot paths over the fixed position suite.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME,
+            BenchmarkPositions.NEAR_MATE})
+    public String position;
+
+    private Board board;
+    private Board pooledBoard;
+    private String fen;
+    private final StringBuilder fenBuilder = new StringBuilder(96);
+    private final int[] moves = new int[Board.MAX_MOVES];
+    private int firstMove;
+    private Square[] straightStarts;
+    private Square[] straightEnds;
+    private Square[] diagonalStarts;
+    private Square[] diagonalEnds;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.position(position);
+        board.generateLegalMoves(moves);
+        firstMove = moves[0];
+        fen = board.toFen();
+        pooledBoard = new Board();
+
+        // Every row/column pair and every long diagonal pair, so empty and blocked paths are both covered.
+        straightStarts = new Square[16];
+        straightEnds = new Square[16];
+        for (int i = 0; i < 8; i++) {
+            straightStarts[i] = board.getBox(i, 0);
+            straightEnds[i] = board.getBox(i, 7);
+            straightStarts[8 + i] = board.getBox(0, i);
+            straightEnds[8 + i] = board.getBox(7, i);
+        }
+        diagonalStarts = new Square[]{board.getBox(0, 0), board.getBox(0, 7), board.getBox(2, 0), board.getBox(5, 2)};
+        diagonalEnds = new Square[]{board.getBox(7, 7), board.getBox(7, 0), board.getBox(7, 5), board.getBox(2, 5)};
+    }
+
+    @Benchmark
+    public Board deepCopy() {
+        return board.deepCopy();
+    }
+
+    // movePiece mutates the board, so it runs on a fresh copy; subtract deepCopy to isolate it.
+    @Benchmark
+    public boolean deepCopyAndMovePiece() {
+        Board copy = board.deepCopy();
+        return copy.movePiece(Move.startX(firstMove), Move.startY(firstMove),
+                Move.endX(firstMove), Move.endY(firstMove));
+    }
+
+    // Reloads one pooled board in place; should not allocate once the piece pool is warm.
+    @Benchmark
+    public long resetFromFen() {
+        pooledBoard.resetFromFen(fen);
+        return pooledBoard.getZobristKey();
+    }
+
+    @Benchmark
+    public int toFen() {
+        fenBuilder.setLength(0);
+        return board.toFen(fenBuilder).length();
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return board.generateLegalMoves(moves);
+    }
+
+    // Goes through isKingInCheck to isSquareUnderAttack.
+    @Benchmark
+    public boolean isSquareUnderAttack() {
+        return board.isInCheck();
+    }
+
+    @Benchmark
+    public void isPathClearStraight(Blackhole blackhole) {
+        for (int i = 0; i < straightStarts.length; i++) {
+            blackhole.consume(board.isPathClearStraight(straightStarts[i], straightEnds[i]));
+        }
+    }
+
+    @Benchmark
+    public void isPathClearDiagonal(Blackhole blackhole) {
+        for (int i = 0; i < diagonalStarts.length; i++) {
+            blackhole.consume(board.isPathClearDiagonal(diagonalStarts[i], diagonalEnds[i]));
+        }
+    }
+}
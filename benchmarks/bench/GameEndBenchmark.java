@@ -0,0 +1,48 @@
+package bench;
+
+import core.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// hasAnyLegalMoves is private, so it is measured through the final move of a checkmate and a stalemate,
+// which makes updateGameStateAfterTurn prove that the opponent has no legal move.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameEndBenchmark {
+    private Board checkmateSetup;
+    private Board stalemateSetup;
+
+    @Setup
+    public void setUp() {
+        checkmateSetup = BenchmarkPositions.checkmateSetup();
+        stalemateSetup = BenchmarkPositions.stalemateSetup();
+    }
+
+    @Benchmark
+    public boolean checkmate() {
+        Board board = checkmateSetup.deepCopy();
+        BenchmarkPositions.play(board, BenchmarkPositions.CHECKMATE_MOVE);
+        return board.isGameOver();
+    }
+
+    @Benchmark
+    public boolean stalemate() {
+        Board board = stalemateSetup.deepCopy();
+        BenchmarkPositions.play(board, BenchmarkPositions.STALEMATE_MOVE);
+        return board.isGameOver();
+    }
+}
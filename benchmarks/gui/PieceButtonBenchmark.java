@@ -0,0 +1,64 @@
+package gui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pieces.Knight;
+import pieces.PieceColor;
+import pieces.Queen;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Renders one board square into an off-screen image, headless, the same way the GUI sizes it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PieceButtonBenchmark {
+    @Param({"white", "black", "empty"})
+    public String piece;
+
+    private ChessGUI.PieceButton button;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        button = new ChessGUI.PieceButton();
+        button.setFont(new Font("Serif", Font.PLAIN, 42));
+        button.setSize(75, 75);
+        if ("white".equals(piece)) {
+            button.setPiece(new Queen(PieceColor.WHITE));
+        } else if ("black".equals(piece)) {
+            button.setPiece(new Knight(PieceColor.BLACK));
+        }
+
+        image = new BufferedImage(75, 75, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        button.paintComponent(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,128 @@
+import archive.ArchiveWriter;
+import archive.ArchivedGame;
+import archive.GameArchive;
+import core.Board;
+import core.Move;
+import pgn.GameValidator;
+import pgn.PgnGame;
+import pgn.PgnReader;
+import pgn.ValidationResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Binary game archive tool:
+// java ArchiveMain import <games.pgn> <archive>       appends the legal games of a PGN file
+// java ArchiveMain replay <archive> [--threads N|all] replays every game, reporting games/s and plies/s
+// java ArchiveMain show <archive> <n>                 prints game n (0-based) and its final position
+public class ArchiveMain {
+    private static final long REPLAY_CHUNK = 1 << 14;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            usage();
+        }
+        switch (args[0]) {
+            case "import" -> {
+                if (args.length < 3) {
+                    usage();
+                }
+                importPgn(Path.of(args[1]), Path.of(args[2]));
+            }
+            case "replay" -> {
+                int threads = Runtime.getRuntime().availableProcessors();
+                if (args.length > 3 && "--threads".equals(args[2]) && !"all".equals(args[3])) {
+                    threads = Integer.parseInt(args[3]);
+                }
+                replay(GameArchive.open(Path.of(args[1])), threads);
+            }
+            case "show" -> {
+                if (args.length < 3) {
+                    usage();
+                }
+                show(GameArchive.open(Path.of(args[1])).game(Long.parseLong(args[2])));
+            }
+            default -> usage();
+        }
+    }
+
+    private static void importPgn(Path pgn, Path archive) throws IOException {
+        GameValidator validator = new GameValidator();
+        long imported = 0;
+        long skipped = 0;
+        long start = System.nanoTime();
+        try (PgnReader reader = PgnReader.open(pgn); ArchiveWriter writer = ArchiveWriter.open(archive)) {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                ValidationResult result = validator.validate(game);
+                if (result.getStatus() != ValidationResult.Status.LEGAL) {
+                    skipped++;
+                    continue;
+                }
+                writer.add(game.getFen(), validator.getPlayedMoves(), result.getPly(), validator.getResult());
+                imported++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        long archiveBytes = Files.size(archive) + Files.size(archive.resolveSibling(archive.getFileName() + ".idx"));
+        System.out.printf("Imported %d games (%d skipped) in %.2f s%n", imported, skipped, seconds);
+        System.out.printf("PGN %d bytes, archive %d bytes (%.1fx smaller)%n",
+                Files.size(pgn), archiveBytes, (double) Files.size(pgn) / archiveBytes);
+    }
+
+    private static void replay(GameArchive archive, int threads) {
+        AtomicLong plies = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (long from = 0; from < archive.size(); from += REPLAY_CHUNK) {
+                long chunkStart = from;
+                long chunkEnd = Math.min(archive.size(), from + REPLAY_CHUNK);
+                tasks.add(pool.submit(() -> {
+                    Board board = new Board();
+                    long[] chunkPlies = new long[1];
+                    archive.forEach(chunkStart, chunkEnd, game -> {
+                        game.replay(board);
+                        chunkPlies[0] += game.getPlyCount();
+                    });
+                    plies.addAndGet(chunkPlies[0]);
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.printf("Replayed %d games, %d plies in %.3f s on %d threads: %.0f games/s, %.0f plies/s%n",
+                archive.size(), plies.get(), seconds, threads, archive.size() / seconds, plies.get() / seconds);
+    }
+
+    private static void show(ArchivedGame game) {
+        StringBuilder moves = new StringBuilder();
+        for (int i = 0; i < game.getPlyCount(); i++) {
+            moves.append(i == 0 ? "" : " ").append(Move.toUci(game.getMove(i)));
+        }
+        Board board = new Board();
+        game.replay(board);
+        System.out.println("Game " + game.getNumber() + ": " + game.getPlyCount() + " plies, result " + game.getResult());
+        if (game.getStartFen() != null) {
+            System.out.println("Start: " + game.getStartFen());
+        }
+        System.out.println(moves);
+        System.out.println("Final: " + board.toFen());
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java ArchiveMain import <games.pgn> <archive> | replay <archive> [--threads N|all] | show <archive> <n>");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,54 @@
+import core.Board;
+import endgame.BitbaseGenerator;
+import endgame.Bitbases;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+// Endgame bitbase tool:
+// java BitbaseMain generate <dir> [--threads N]   builds KQK, KRK, KPK and KBNK into <dir>
+// java BitbaseMain probe <dir> "<fen>"            prints the result for the side to move
+public class BitbaseMain {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            usage();
+        }
+        Path directory = Path.of(args[1]);
+
+        switch (args[0]) {
+            case "generate" -> {
+                int threads = Runtime.getRuntime().availableProcessors();
+                if (args.length > 3 && "--threads".equals(args[2])) {
+                    threads = Integer.parseInt(args[3]);
+                }
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                long start = System.nanoTime();
+                try {
+                    BitbaseGenerator.generateAll(directory, pool, System.out);
+                } finally {
+                    pool.shutdown();
+                }
+                System.out.printf("Generated in %.2f s on %d threads%n", (System.nanoTime() - start) / 1_000_000_000.0, threads);
+            }
+            case "probe" -> {
+                if (args.length < 3) {
+                    usage();
+                }
+                int result = Bitbases.open(directory).probe(Board.fromFen(args[2]));
+                System.out.println(switch (result) {
+                    case Bitbases.WIN -> "win";
+                    case Bitbases.DRAW -> "draw";
+                    case Bitbases.LOSS -> "loss";
+                    default -> "not in bitbases";
+                });
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java BitbaseMain generate <dir> [--threads N] | probe <dir> \"<fen>\"");
+        System.exit(2);
+    }
+}
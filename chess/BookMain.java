@@ -0,0 +1,36 @@
+import book.BookMove;
+import book.PolyglotBook;
+import book.PolyglotKey;
+import core.Board;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Prints the book moves for a position: java BookMain <book.bin> [fen]
+public class BookMain {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java BookMain <book.bin> [fen]");
+            System.exit(2);
+        }
+
+        PolyglotBook book = PolyglotBook.open(Path.of(args[0]));
+        Board board = Board.fromFen(args.length > 1 ? args[1] : Board.STARTING_FEN);
+
+        long start = System.nanoTime();
+        List<BookMove> moves = book.lookup(board);
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+        long totalWeight = 0;
+        for (BookMove move : moves) {
+            totalWeight += move.getWeight();
+        }
+        System.out.printf("key %016x: %d book moves out of %d entries (%d us)%n",
+                PolyglotKey.key(board), moves.size(), book.size(), elapsedMicros);
+        for (BookMove move : moves) {
+            double share = totalWeight > 0 ? 100.0 * move.getWeight() / totalWeight : 0;
+            System.out.printf("  %s %5.1f%%%n", move, share);
+        }
+    }
+}
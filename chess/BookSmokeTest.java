@@ -0,0 +1,63 @@
+import book.BookMove;
+import book.PolyglotBook;
+import book.PolyglotKey;
+import core.Board;
+import core.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Polyglot key and book lookup checks: java BookSmokeTest
+public class BookSmokeTest {
+    public static void main(String[] args) throws IOException {
+        // Test vectors from the Polyglot book format specification.
+        expect(key(Board.STARTING_FEN) == PolyglotKey.STARTING_POSITION_KEY, "start position");
+        expect(key("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")
+                == 0x823C9B50FD114196L, "e4");
+        expect(key("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2")
+                == 0x0756B94461C50FB0L, "e4 d5");
+        expect(key("rnbqkbnr/ppp1pppp/8/3pP3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2")
+                == 0x662FAFB965DB29D4L, "e4 d5 e5");
+        expect(key("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3")
+                == 0x22A48B5A8E47FF78L, "e4 d5 e5 f5 (en passant possible)");
+        expect(key("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR b kq - 0 3")
+                == 0x652A607CA3F242C1L, "e4 d5 e5 f5 Ke2");
+        expect(key("rnbq1bnr/ppp1pkpp/8/3pPp2/8/8/PPPPKPPP/RNBQ1BNR w - - 0 4")
+                == 0x00FDD303C946BDD9L, "e4 d5 e5 f5 Ke2 Kf7");
+        expect(key("rnbqkbnr/p1pppppp/8/8/PpP4P/8/1P1PPPP1/RNBQKBNR b KQkq c3 0 3")
+                == 0x3C8123EA7B067637L, "a4 b5 h4 b4 c4");
+        expect(key("rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4")
+                == 0x5C3F9B829B279560L, "a4 b5 h4 b4 c4 bxc3 Ra3");
+
+        // A one-entry book: e2e4 from the starting position (Polyglot move from e2 = 12 to e4 = 28).
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            ByteBuffer entry = ByteBuffer.allocate(16);
+            entry.putLong(PolyglotKey.STARTING_POSITION_KEY).putShort((short) (12 << 6 | 28)).putShort((short) 7);
+            Files.write(file, entry.array());
+            PolyglotBook book = PolyglotBook.open(file);
+            List<BookMove> moves = book.lookup(Board.fromFen(Board.STARTING_FEN));
+            expect(moves.size() == 1 && "e2e4".equals(Move.toUci(moves.get(0).getMove()))
+                    && moves.get(0).getWeight() == 7, "book move for the start position");
+            expect(book.lookup(Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"))
+                    .isEmpty(), "position not in the book");
+        } finally {
+            Files.delete(file);
+        }
+
+        System.out.println("Book smoke tests passed");
+    }
+
+    private static long key(String fen) {
+        return PolyglotKey.key(Board.fromFen(fen));
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("Failed: " + message);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+import core.Board;
+import perft.Perft;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Command-line perft driver: java PerftMain [depth] [--fen "<fen>"] [--divide] [--threads N] [--verify]
+public class PerftMain {
+    public static void main(String[] args) {
+        int depth = 5;
+        boolean divide = false;
+        boolean verify = false;
+        int threads = 1;
+        String fen = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--divide".equals(arg)) {
+                divide = true;
+            } else if ("--verify".equals(arg)) {
+                verify = true;
+            } else if ("--fen".equals(arg) && i + 1 < args.length) {
+                fen = args[++i];
+            } else if ("--threads".equals(arg) && i + 1 < args.length) {
+                String value = args[++i];
+                threads = "all".equals(value) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value);
+            } else {
+                depth = Integer.parseInt(arg);
+            }
+        }
+
+        if (verify) {
+            boolean passed = verifyStartingPosition(depth, threads);
+            passed &= verifyReferencePositions(depth, threads);
+            System.out.println(passed ? "Perft verification passed." : "Perft verification FAILED.");
+            System.exit(passed ? 0 : 1);
+        }
+
+        Board board = new Board();
+        if (fen != null) {
+            board.resetFromFen(fen);
+        } else {
+            board.setupStartingPosition();
+        }
+
+        if (divide) {
+            long start = System.nanoTime();
+            long nodes = new Perft(board, depth).divide(depth, System.out);
+            report(depth, nodes, System.nanoTime() - start);
+            return;
+        }
+
+        runTimed(board, depth, threads);
+    }
+
+    private static boolean verifyStartingPosition(int maxDepth, int threads) {
+        boolean allPassed = true;
+        int lastDepth = Math.min(maxDepth, Perft.STARTING_POSITION_NODES.length - 1);
+        for (int depth = 1; depth <= lastDepth; depth++) {
+            Board board = new Board();
+            board.setupStartingPosition();
+
+            long nodes = runTimed(board, depth, threads);
+            long expected = Perft.STARTING_POSITION_NODES[depth];
+            if (nodes != expected) {
+                System.out.println("  FAILED: expected " + expected);
+                allPassed = false;
+            }
+        }
+        return allPassed;
+    }
+
+    private static boolean verifyReferencePositions(int maxDepth, int threads) {
+        boolean allPassed = true;
+        for (int position = 0; position < Perft.REFERENCE_FENS.length; position++) {
+            String fen = Perft.REFERENCE_FENS[position];
+            long[] expectedNodes = Perft.REFERENCE_NODES[position];
+            System.out.println(fen);
+            int lastDepth = Math.min(maxDepth, expectedNodes.length - 1);
+            for (int depth = 1; depth <= lastDepth; depth++) {
+                long nodes = runTimed(Board.fromFen(fen), depth, threads);
+                if (nodes != expectedNodes[depth]) {
+                    System.out.println("  FAILED: expected " + expectedNodes[depth]);
+                    allPassed = false;
+                }
+            }
+        }
+        return allPassed;
+    }
+
+    private static long runTimed(Board board, int depth, int threads) {
+        long start = System.nanoTime();
+        long nodes;
+        if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                nodes = Perft.countParallel(board, depth, pool);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            nodes = new Perft(board, depth).count(depth);
+        }
+        report(depth, nodes, System.nanoTime() - start);
+        return nodes;
+    }
+
+    private static void report(int depth, long nodes, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long nodesPerSecond = seconds > 0 ? (long) (nodes / seconds) : nodes;
+        System.out.printf("depth %d: %d nodes in %.3f s (%d nodes/s)%n", depth, nodes, seconds, nodesPerSecond);
+    }
+}
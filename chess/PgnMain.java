@@ -0,0 +1,48 @@
+import pgn.PgnReader;
+import pgn.PgnValidator;
+import pgn.ValidationReport;
+import pgn.ValidationResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Command-line PGN validator: java PgnMain <file.pgn> [--threads N|all] [--queue N] [--quiet]
+// Prints one status line per game (only failures with --quiet) and a throughput report.
+public class PgnMain {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String file = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = 1024;
+        boolean quiet = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--threads".equals(arg) && i + 1 < args.length) {
+                String value = args[++i];
+                threads = "all".equals(value) ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(value);
+            } else if ("--queue".equals(arg) && i + 1 < args.length) {
+                queue = Integer.parseInt(args[++i]);
+            } else if ("--quiet".equals(arg)) {
+                quiet = true;
+            } else {
+                file = arg;
+            }
+        }
+        if (file == null) {
+            System.err.println("Usage: java PgnMain <file.pgn> [--threads N|all] [--queue N] [--quiet]");
+            System.exit(2);
+        }
+
+        boolean onlyFailures = quiet;
+        ValidationReport report;
+        try (PgnReader reader = PgnReader.open(Path.of(file))) {
+            report = new PgnValidator(threads, queue).validate(reader, result -> {
+                if (!onlyFailures || result.getStatus() != ValidationResult.Status.LEGAL) {
+                    System.out.println(result);
+                }
+            });
+        }
+        System.out.println(report);
+        System.exit(report.getGames() == report.getLegal() ? 0 : 1);
+    }
+}
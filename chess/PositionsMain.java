@@ -0,0 +1,58 @@
+import archive.GameArchive;
+import core.Board;
+import positions.PositionIndex;
+import positions.PositionIndexBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Position search over a game archive:
+// java PositionsMain build <archive> <index> [--threads N|all] [--memory MB] [--temp dir]
+// java PositionsMain query <index> "<fen>"     games and plies where the position occurred
+public class PositionsMain {
+    private static final int SHOWN_POSTINGS = 20;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            usage();
+        }
+        switch (args[0]) {
+            case "build" -> {
+                int threads = Runtime.getRuntime().availableProcessors();
+                long memoryMb = 512;
+                Path temp = Path.of(args[2]).toAbsolutePath().getParent();
+                for (int i = 3; i + 1 < args.length; i += 2) {
+                    switch (args[i]) {
+                        case "--threads" -> threads = "all".equals(args[i + 1])
+                                ? Runtime.getRuntime().availableProcessors() : Integer.parseInt(args[i + 1]);
+                        case "--memory" -> memoryMb = Long.parseLong(args[i + 1]);
+                        case "--temp" -> temp = Path.of(args[i + 1]);
+                        default -> usage();
+                    }
+                }
+                GameArchive archive = GameArchive.open(Path.of(args[1]));
+                System.out.println("Indexing " + archive.size() + " games on " + threads + " threads with " + memoryMb + " MB of sort buffers");
+                new PositionIndexBuilder(threads, memoryMb << 20, temp, System.out).build(archive, Path.of(args[2]));
+            }
+            case "query" -> {
+                PositionIndex index = PositionIndex.open(Path.of(args[1]));
+                Board board = Board.fromFen(args[2]);
+                long start = System.nanoTime();
+                long[] postings = index.lookup(board);
+                long micros = (System.nanoTime() - start) / 1000;
+                System.out.println(postings.length + " occurrences in " + PositionIndex.countGames(postings)
+                        + " games (" + micros + " us)");
+                for (int i = 0; i < Math.min(SHOWN_POSTINGS, postings.length); i++) {
+                    System.out.println("game " + PositionIndex.game(postings[i]) + " after ply " + PositionIndex.ply(postings[i]));
+                }
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java PositionsMain build <archive> <index> [--threads N|all] [--memory MB] [--temp dir]"
+                + " | query <index> \"<fen>\"");
+        System.exit(2);
+    }
+}
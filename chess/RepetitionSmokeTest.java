@@ -0,0 +1,101 @@
+import core.Board;
+import core.Move;
+import search.Search;
+import search.SearchLimits;
+import search.SearchResult;
+import search.TranspositionTable;
+
+import java.util.Random;
+
+// Draw-rule and position-key checks: java RepetitionSmokeTest
+public class RepetitionSmokeTest {
+    public static void main(String[] args) {
+        // The en passant file only counts while a capture is possible, so the position after 1.e4
+        // repeats like any other.
+        Board board = Board.fromFen(Board.STARTING_FEN);
+        String[] knightLoop = {"e2e4", "g8f6", "g1f3", "f6g8", "f3g1", "g8f6", "g1f3", "f6g8", "f3g1"};
+        for (int i = 0; i < knightLoop.length; i++) {
+            play(board, knightLoop[i]);
+            expect(board.isGameOver() == (i == knightLoop.length - 1), "no early draw after " + knightLoop[i]);
+        }
+        expect("Draw by threefold repetition.".equals(board.getStatusMessage()), "threefold after 1.e4 knight loop");
+
+        Board afterPush = Board.fromFen(Board.STARTING_FEN);
+        play(afterPush, "e2e4");
+        Board withoutSquare = Board.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        expect(afterPush.getZobristKey() == withoutSquare.getZobristKey(), "1.e4 key ignores an uncapturable en passant square");
+
+        Board capturable = Board.fromFen("rnbqkbnr/ppp1pppp/8/8/3p4/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        play(capturable, "e2e4");
+        Board capturableWithoutSquare = Board.fromFen("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        expect(capturable.getZobristKey() != capturableWithoutSquare.getZobristKey(), "capturable en passant square is hashed");
+
+        // The search sees the repetition too, one move before the game ends on it.
+        Board searchBoard = Board.fromFen(Board.STARTING_FEN);
+        for (String move : new String[]{"e2e4", "g8f6", "g1f3", "f6g8", "f3g1"}) {
+            makeMove(searchBoard, move);
+        }
+        expect(searchBoard.isRepetition(), "search repetition after 1.e4 knight loop");
+
+        // The incrementally updated key matches a key computed from scratch.
+        Random random = new Random(7);
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int game = 0; game < 200; game++) {
+            Board replay = Board.fromFen(Board.STARTING_FEN);
+            for (int ply = 0; ply < 120; ply++) {
+                int count = replay.generateLegalMoves(moves);
+                if (count == 0) {
+                    break;
+                }
+                replay.makeMove(moves[random.nextInt(count)]);
+                expect(replay.getZobristKey() == Board.fromFen(replay.toFen()).getZobristKey(), "incremental key in " + replay.toFen());
+            }
+        }
+
+        Board fifty = Board.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        play(fifty, "a1a2");
+        expect("Draw by the fifty-move rule.".equals(fifty.getStatusMessage()), "fifty-move rule");
+
+        // A mate on the move that reaches the fifty-move limit wins, in the game and in the search.
+        Board lateMate = Board.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 99 80");
+        SearchResult result = new Search(new TranspositionTable(1)).search(lateMate, SearchLimits.depth(2));
+        expect("a1a8".equals(Move.toUci(result.getBestMove())) && Search.isMateScore(result.getScore()),
+                "search mates on the hundredth ply");
+        play(lateMate, "a1a8");
+        expect(lateMate.getStatusMessage().startsWith("Checkmate"), "mate beats the fifty-move rule");
+
+        Board bare = Board.fromFen("4k3/8/8/8/8/8/3r4/4KB2 w - - 0 1");
+        play(bare, "e1d2");
+        expect("Draw by insufficient material.".equals(bare.getStatusMessage()), "insufficient material");
+
+        System.out.println("Repetition smoke tests passed");
+    }
+
+    private static void play(Board board, String uci) {
+        int from = square(uci, 0);
+        int to = square(uci, 2);
+        expect(board.movePiece(from / 8, from % 8, to / 8, to % 8), "legal " + uci);
+    }
+
+    private static void makeMove(Board board, String uci) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateLegalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.toUci(moves[i]).equals(uci)) {
+                board.makeMove(moves[i]);
+                return;
+            }
+        }
+        throw new RuntimeException("Failed: legal " + uci);
+    }
+
+    private static int square(String uci, int offset) {
+        return ('8' - uci.charAt(offset + 1)) * 8 + (uci.charAt(offset) - 'a');
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("Failed: " + message);
+        }
+    }
+}
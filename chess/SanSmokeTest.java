@@ -0,0 +1,48 @@
+import core.Board;
+import core.Move;
+import pgn.San;
+
+import java.nio.charset.StandardCharsets;
+
+// SAN resolution checks: java SanSmokeTest
+public class SanSmokeTest {
+    public static void main(String[] args) {
+        Board board = Board.fromFen("rnbqkbnr/ppp1pppp/8/3p4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 2");
+        expect("e4d5".equals(resolve(board, "exd5")), "exd5 captures");
+        expect(resolve(board, "d5") == null, "d5 is not a pawn capture");
+        expect(resolve(board, "ed5") == null, "pawn capture without x");
+        expect(resolve(board, "xd5") == null, "pawn capture without origin file");
+        expect("e4e5".equals(resolve(board, "e5")), "e5 pushes");
+        expect(resolve(board, "exe5") == null, "push marked as capture");
+
+        board = Board.fromFen("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2");
+        expect("g1f3".equals(resolve(board, "Nf3")), "Nf3");
+        expect(resolve(board, "Nxf3") == null, "Nxf3 onto an empty square");
+
+        board = Board.fromFen("4k3/8/8/3p4/8/4N3/8/4K3 w - - 0 1");
+        expect("e3d5".equals(resolve(board, "Nxd5")), "Nxd5 captures");
+        expect(resolve(board, "Nd5") == null, "capture without x");
+
+        board = Board.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        expect("e5d6".equals(resolve(board, "exd6")), "en passant");
+
+        board = Board.fromFen("3rk3/2P5/8/8/8/8/8/4K3 w - - 0 1");
+        expect("c7c8q".equals(resolve(board, "c8=Q")), "promotion push");
+        expect("c7d8n".equals(resolve(board, "cxd8=N+")), "capture promotion");
+        expect(resolve(board, "d8=Q") == null, "promotion capture without origin file");
+
+        System.out.println("SAN smoke tests passed");
+    }
+
+    private static String resolve(Board board, String san) {
+        byte[] text = san.getBytes(StandardCharsets.US_ASCII);
+        int move = San.resolve(board, text, 0, text.length, new int[Board.MAX_MOVES]);
+        return move == Move.NONE ? null : Move.toUci(move);
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("Failed: " + message);
+        }
+    }
+}
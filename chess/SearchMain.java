@@ -0,0 +1,59 @@
+import core.Board;
+import core.Move;
+import endgame.Bitbases;
+import search.LazySmpSearch;
+import search.SearchLimits;
+import search.SearchResult;
+import search.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Searches a position (the starting position by default) and prints one line per completed depth:
+// java SearchMain [--depth N] [--nodes N] [--movetime MS] [--hash MB] [--threads N] [--fen "<fen>"] [--bitbases DIR]
+public class SearchMain {
+    public static void main(String[] args) throws IOException {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        int hashMb = 64;
+        int threads = 1;
+        String fen = Board.STARTING_FEN;
+        String bitbaseDirectory = null;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--depth" -> depth = Integer.parseInt(value);
+                case "--nodes" -> nodes = Long.parseLong(value);
+                case "--movetime" -> moveTime = Long.parseLong(value);
+                case "--hash" -> hashMb = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--fen" -> fen = value;
+                case "--bitbases" -> bitbaseDirectory = value;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (depth == 0 && nodes == 0 && moveTime == 0) {
+            depth = 6;
+        }
+
+        Board board = Board.fromFen(fen);
+
+        LazySmpSearch search = new LazySmpSearch(new TranspositionTable(hashMb), threads);
+        if (bitbaseDirectory != null) {
+            search.setBitbases(Bitbases.open(Path.of(bitbaseDirectory)));
+        }
+        search.setIterationListener(result -> System.out.println(result));
+        SearchResult result = search.search(board, new SearchLimits(depth, nodes, moveTime));
+        search.shutdown();
+
+        System.out.println("best move " + Move.toUci(result.getBestMove())
+                + " (" + result.getNodesPerSecond() + " nodes/s)");
+        System.out.printf("pawn hash hit rate %.1f%%%n", search.getPawnHashHitRate() * 100);
+        long[] timeToDepth = result.getTimeToDepthMillis();
+        for (int d = 1; d < timeToDepth.length; d++) {
+            System.out.println("time to depth " + d + ": " + timeToDepth[d] + " ms");
+        }
+    }
+}
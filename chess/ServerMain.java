@@ -0,0 +1,79 @@
+import server.GameServer;
+import server.LoadGenerator;
+import server.LoadReport;
+import server.VirtualThreads;
+
+import java.io.IOException;
+
+// Multi-game server and its load harness:
+// java ServerMain serve [--port N]                                   hosts games until killed
+// java ServerMain load [--games N] [--plies N] [--think MS] [--connect host:port]
+//                                                  plays N concurrent games and reports move latency percentiles
+// Without --connect, load starts a server in the same JVM. Virtual threads need Java 21 at runtime.
+public class ServerMain {
+    private static final int DEFAULT_PORT = 7878;
+    // An in-process run holds both ends of every connection, so its default stays well inside the
+    // common 1024 open-file limit; 10k games need a server in another process (or a raised ulimit -n).
+    private static final int DEFAULT_IN_PROCESS_GAMES = 400;
+    private static final int DEFAULT_REMOTE_GAMES = 10_000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            usage();
+        }
+
+        int port = DEFAULT_PORT;
+        int games = -1;
+        int plies = 40;
+        long think = 0;
+        String host = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--think" -> think = Long.parseLong(args[++i]);
+                case "--connect" -> {
+                    String[] address = args[++i].split(":");
+                    host = address[0];
+                    port = Integer.parseInt(address[1]);
+                }
+                default -> usage();
+            }
+        }
+        if (games == -1) {
+            games = host == null ? DEFAULT_IN_PROCESS_GAMES : DEFAULT_REMOTE_GAMES;
+        }
+
+        String threads = VirtualThreads.isAvailable() ? "virtual threads" : "platform threads (Java 21+ for virtual threads)";
+        switch (args[0]) {
+            case "serve" -> {
+                GameServer server = new GameServer(port);
+                server.start();
+                System.out.println("Serving games on port " + server.getPort() + " with " + threads);
+                Thread.currentThread().join();
+            }
+            case "load" -> {
+                GameServer server = null;
+                if (host == null) {
+                    server = new GameServer(0);
+                    server.start();
+                    host = "127.0.0.1";
+                    port = server.getPort();
+                }
+                System.out.println("Playing " + games + " concurrent games of " + plies + " plies on " + threads);
+                LoadReport report = new LoadGenerator(host, port, games, plies, think, 42).run();
+                System.out.println(report);
+                if (server != null) {
+                    server.close();
+                }
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: java ServerMain serve [--port N] | load [--games N] [--plies N] [--think MS] [--connect host:port]");
+        System.exit(2);
+    }
+}
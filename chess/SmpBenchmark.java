@@ -0,0 +1,73 @@
+import core.Board;
+import search.LazySmpSearch;
+import search.SearchLimits;
+import search.SearchResult;
+import search.TranspositionTable;
+
+// Lazy SMP speedup curve: searches a fixed set of positions to a fixed depth with 1, 2, 4, ... N threads
+// and reports time to depth, nodes/second and speedup over one thread.
+// java SmpBenchmark [depth] [maxThreads] [hashMb]
+public class SmpBenchmark {
+    // Opening lines given as (startX, startY, endX, endY) moves from the starting position.
+    private static final int[][][] POSITIONS = {
+            {},
+            {{6, 4, 4, 4}, {1, 4, 3, 4}, {7, 6, 5, 5}, {0, 1, 2, 2}, {7, 5, 4, 2}, {0, 5, 3, 2}},
+            {{6, 3, 4, 3}, {0, 6, 2, 5}, {6, 2, 4, 2}, {1, 4, 2, 4}, {7, 1, 5, 2}, {0, 5, 4, 1}},
+            {{6, 4, 4, 4}, {1, 2, 3, 2}, {7, 6, 5, 5}, {1, 3, 2, 3}, {6, 3, 4, 3}, {3, 2, 4, 3}, {5, 5, 4, 3}}
+    };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashMb = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+
+        // Warm-up so the single-thread baseline is not measured against a cold JIT.
+        LazySmpSearch warmUp = new LazySmpSearch(new TranspositionTable(hashMb), 1);
+        for (int[][] line : POSITIONS) {
+            warmUp.search(positionAfter(line), SearchLimits.depth(Math.max(1, depth - 1)));
+        }
+        warmUp.shutdown();
+
+        double baselineMillis = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            TranspositionTable table = new TranspositionTable(hashMb);
+            LazySmpSearch search = new LazySmpSearch(table, threads);
+
+            long totalMillis = 0;
+            long totalNodes = 0;
+            for (int[][] line : POSITIONS) {
+                table.clear();
+                Board board = positionAfter(line);
+                SearchResult result = search.search(board, SearchLimits.depth(depth));
+                totalMillis += result.getElapsedMillis();
+                totalNodes += result.getNodes();
+            }
+            search.shutdown();
+
+            if (threads == 1) {
+                baselineMillis = Math.max(1, totalMillis);
+            }
+            long nodesPerSecond = totalMillis > 0 ? totalNodes * 1000 / totalMillis : totalNodes;
+            System.out.printf("threads %2d: time to depth %d %6d ms, %10d nodes/s, speedup %.2fx%n",
+                    threads, depth, totalMillis, nodesPerSecond, baselineMillis / Math.max(1, totalMillis));
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    private static Board positionAfter(int[][] line) {
+        Board board = new Board();
+        board.setupStartingPosition();
+        for (int[] move : line) {
+            if (!board.movePiece(move[0], move[1], move[2], move[3])) {
+                throw new IllegalStateException(board.getStatusMessage());
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,16 @@
+import uci.UciEngine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+// Headless entry point speaking UCI on stdin/stdout, for use with chess GUIs and match runners.
+public class UciMain {
+    public static void main(String[] args) throws IOException {
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        PrintStream output = new PrintStream(System.out, false, StandardCharsets.US_ASCII);
+        new UciEngine(input, output).run();
+    }
+}
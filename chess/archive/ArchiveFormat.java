@@ -0,0 +1,48 @@
+package archive;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+// On-disk layout shared by ArchiveWriter and GameArchive. All values are big-endian.
+//
+// Game file:  magic "GAMEARC1", then game records back to back:
+//             plies (u16), result (u8), FEN length (u8, 0 = standard start), FEN bytes,
+//             one u16 per ply: from (bits 0-5), to (bits 6-11), promotion type (bits 12-14).
+// Index file: magic "GAMEIDX1", then one u64 game-file offset per game.
+//
+// The move encoding is the low 15 bits of core.Move, so replaying needs no move generation.
+final class ArchiveFormat {
+    static final long GAME_MAGIC = 0x47414d4541524331L;
+    static final long INDEX_MAGIC = 0x47414d4549445831L;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 4;
+    static final int MAX_PLIES = 0xFFFF;
+    static final int MAX_FEN_LENGTH = 0xFF;
+    static final int MAX_RECORD_BYTES = RECORD_HEADER_BYTES + MAX_FEN_LENGTH + 2 * MAX_PLIES;
+    static final int MOVE_MASK = 0x7FFF;
+
+    // Result codes, in the order of RESULTS.
+    static final String[] RESULTS = {"*", "1-0", "0-1", "1/2-1/2"};
+
+    private ArchiveFormat() {
+    }
+
+    static Path indexPath(Path gameFile) {
+        return gameFile.resolveSibling(gameFile.getFileName() + ".idx");
+    }
+
+    static int resultCode(String result) {
+        for (int i = 1; i < RESULTS.length; i++) {
+            if (RESULTS[i].equals(result)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    static int recordLength(ByteBuffer buffer, int position) {
+        int plies = buffer.getShort(position) & 0xFFFF;
+        int fenLength = buffer.get(position + 3) & 0xFF;
+        return RECORD_HEADER_BYTES + fenLength + 2 * plies;
+    }
+}
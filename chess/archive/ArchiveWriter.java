@@ -0,0 +1,146 @@
+package archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends games to an archive in batches. Records collect in a heap buffer and go to disk together,
+// game data first and index entries second, so the index never points at data that is not written.
+// Reopening an archive drops anything past the last complete, indexed game (e.g. after a crash
+// mid-batch) and continues appending from there. Not thread-safe.
+public final class ArchiveWriter implements Closeable {
+    private static final int BATCH_BYTES = 1 << 20;
+
+    private final FileChannel games;
+    private final FileChannel index;
+    private final ByteBuffer gameBatch = ByteBuffer.allocate(BATCH_BYTES + ArchiveFormat.MAX_RECORD_BYTES);
+    private final ByteBuffer indexBatch = ByteBuffer.allocate(BATCH_BYTES);
+    private long gameFileEnd;
+    private long gameCount;
+
+    private ArchiveWriter(FileChannel games, FileChannel index) {
+        this.games = games;
+        this.index = index;
+    }
+
+    public static ArchiveWriter open(Path gameFile) throws IOException {
+        FileChannel games = FileChannel.open(gameFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileChannel index = FileChannel.open(ArchiveFormat.indexPath(gameFile), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ArchiveWriter writer = new ArchiveWriter(games, index);
+        try {
+            writer.recover(gameFile);
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        return writer;
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    // Queues one game. Moves are packed core.Move values (flags are dropped); startFen is null for
+    // the standard starting position; result is a PGN result token or null.
+    public void add(String startFen, int[] moves, int plies, String result) throws IOException {
+        byte[] fen = startFen == null ? new byte[0] : startFen.getBytes(StandardCharsets.US_ASCII);
+        if (plies > ArchiveFormat.MAX_PLIES || fen.length > ArchiveFormat.MAX_FEN_LENGTH) {
+            throw new IllegalArgumentException("Game too long for the archive: " + plies + " plies, FEN of " + fen.length + " bytes.");
+        }
+
+        if (!indexBatch.hasRemaining()) {
+            flush();
+        }
+        indexBatch.putLong(gameFileEnd + gameBatch.position());
+        gameBatch.putShort((short) plies);
+        gameBatch.put((byte) ArchiveFormat.resultCode(result));
+        gameBatch.put((byte) fen.length);
+        gameBatch.put(fen);
+        for (int i = 0; i < plies; i++) {
+            gameBatch.putShort((short) (moves[i] & ArchiveFormat.MOVE_MASK));
+        }
+        gameCount++;
+
+        if (gameBatch.position() >= BATCH_BYTES) {
+            flush();
+        }
+    }
+
+    public void flush() throws IOException {
+        gameBatch.flip();
+        long written = gameBatch.remaining();
+        writeFully(games, gameBatch, gameFileEnd);
+        gameFileEnd += written;
+
+        indexBatch.flip();
+        writeFully(index, indexBatch, index.size());
+        gameBatch.clear();
+        indexBatch.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (games; index) {
+            flush();
+        }
+    }
+
+    private void recover(Path gameFile) throws IOException {
+        if (games.size() == 0 && index.size() == 0) {
+            writeHeader(games, ArchiveFormat.GAME_MAGIC);
+            writeHeader(index, ArchiveFormat.INDEX_MAGIC);
+            gameFileEnd = ArchiveFormat.HEADER_BYTES;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(ArchiveFormat.HEADER_BYTES);
+        if (games.read(header, 0) != ArchiveFormat.HEADER_BYTES || header.getLong(0) != ArchiveFormat.GAME_MAGIC) {
+            throw new IOException(gameFile + ": not a game archive");
+        }
+        header.clear();
+        if (index.read(header, 0) != ArchiveFormat.HEADER_BYTES || header.getLong(0) != ArchiveFormat.INDEX_MAGIC) {
+            throw new IOException(ArchiveFormat.indexPath(gameFile) + ": not a game archive index");
+        }
+
+        // Keep only games whose index entry and record are both complete.
+        long entries = (index.size() - ArchiveFormat.HEADER_BYTES) / 8;
+        gameFileEnd = ArchiveFormat.HEADER_BYTES;
+        ByteBuffer entry = ByteBuffer.allocate(8);
+        ByteBuffer recordHeader = ByteBuffer.allocate(ArchiveFormat.RECORD_HEADER_BYTES);
+        while (entries > 0) {
+            entry.clear();
+            index.read(entry, ArchiveFormat.HEADER_BYTES + (entries - 1) * 8);
+            long offset = entry.getLong(0);
+            recordHeader.clear();
+            if (offset >= ArchiveFormat.HEADER_BYTES && games.read(recordHeader, offset) == ArchiveFormat.RECORD_HEADER_BYTES) {
+                long end = offset + ArchiveFormat.recordLength(recordHeader, 0);
+                if (end <= games.size()) {
+                    gameFileEnd = end;
+                    break;
+                }
+            }
+            entries--;
+        }
+        gameCount = entries;
+        games.truncate(gameFileEnd);
+        index.truncate(ArchiveFormat.HEADER_BYTES + entries * 8);
+    }
+
+    private static void writeHeader(FileChannel channel, long magic) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ArchiveFormat.HEADER_BYTES).putLong(magic);
+        header.flip();
+        writeFully(channel, header, 0);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
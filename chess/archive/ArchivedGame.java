@@ -0,0 +1,78 @@
+package archive;
+
+import core.Board;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Flyweight view of one archived game, reading straight out of the archive's mapping. A view is
+// repointed by GameArchive.read/forEach, so copy out anything that must outlive the next call.
+public final class ArchivedGame {
+    private long number = -1;
+    private ByteBuffer buffer;
+    private int position;
+
+    void point(long number, ByteBuffer buffer, int position) {
+        this.number = number;
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    // 0-based position of the game in the archive.
+    public long getNumber() {
+        return number;
+    }
+
+    public int getPlyCount() {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+    // PGN result token: "1-0", "0-1", "1/2-1/2" or "*".
+    public String getResult() {
+        return ArchiveFormat.RESULTS[buffer.get(position + 2) & 0x3];
+    }
+
+    // Starting position, or null for the standard start.
+    public String getStartFen() {
+        int length = fenLength();
+        if (length == 0) {
+            return null;
+        }
+        byte[] fen = new byte[length];
+        buffer.get(position + ArchiveFormat.RECORD_HEADER_BYTES, fen);
+        return new String(fen, StandardCharsets.US_ASCII);
+    }
+
+    // Move at the given ply as a packed core.Move (from, to and promotion; no flags).
+    public int getMove(int ply) {
+        return buffer.getShort(position + ArchiveFormat.RECORD_HEADER_BYTES + fenLength() + 2 * ply) & ArchiveFormat.MOVE_MASK;
+    }
+
+    // Sets the board to the position after the first plies moves. Archived games were legal when
+    // written, so moves are applied without generating or checking legal moves.
+    public void replay(Board board, int plies) {
+        int fenLength = fenLength();
+        if (fenLength == 0) {
+            board.resetFromFen(Board.STARTING_FEN);
+        } else {
+            board.resetFromFen(getStartFen());
+        }
+        int moves = position + ArchiveFormat.RECORD_HEADER_BYTES + fenLength;
+        int count = Math.min(plies, getPlyCount());
+        for (int i = 0; i < count; i++) {
+            board.makeMove(buffer.getShort(moves + 2 * i) & ArchiveFormat.MOVE_MASK);
+        }
+    }
+
+    public void replay(Board board) {
+        replay(board, getPlyCount());
+    }
+
+    int getRecordLength() {
+        return ArchiveFormat.recordLength(buffer, position);
+    }
+
+    private int fenLength() {
+        return buffer.get(position + 3) & 0xFF;
+    }
+}
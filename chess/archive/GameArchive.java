@@ -0,0 +1,107 @@
+package archive;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+// Read-only, memory-mapped view of an archive written by ArchiveWriter. Game N is found through the
+// mapped offset index and read in place; nothing is copied onto the heap. Only absolute reads touch
+// the mappings, so one instance can serve any number of threads (each with its own ArchivedGame).
+public final class GameArchive {
+    // A single mapping is limited to 2 GB, so files are mapped in 1 GB segments. Game file segments
+    // overlap by the largest possible record, so every record lies entirely inside one segment.
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private final MappedByteBuffer[] gameSegments;
+    private final MappedByteBuffer[] indexSegments;
+    private final long gameCount;
+    private final long gameFileSize;
+
+    private GameArchive(MappedByteBuffer[] gameSegments, MappedByteBuffer[] indexSegments, long gameCount, long gameFileSize) {
+        this.gameSegments = gameSegments;
+        this.indexSegments = indexSegments;
+        this.gameCount = gameCount;
+        this.gameFileSize = gameFileSize;
+    }
+
+    public static GameArchive open(Path gameFile) throws IOException {
+        // The mappings stay valid after the channels are closed.
+        try (FileChannel games = FileChannel.open(gameFile, StandardOpenOption.READ);
+             FileChannel index = FileChannel.open(ArchiveFormat.indexPath(gameFile), StandardOpenOption.READ)) {
+            MappedByteBuffer[] gameSegments = map(games, ArchiveFormat.MAX_RECORD_BYTES);
+            MappedByteBuffer[] indexSegments = map(index, 0);
+            if (games.size() < ArchiveFormat.HEADER_BYTES || gameSegments[0].getLong(0) != ArchiveFormat.GAME_MAGIC) {
+                throw new IOException(gameFile + ": not a game archive");
+            }
+            if (index.size() < ArchiveFormat.HEADER_BYTES || indexSegments[0].getLong(0) != ArchiveFormat.INDEX_MAGIC) {
+                throw new IOException(ArchiveFormat.indexPath(gameFile) + ": not a game archive index");
+            }
+            long gameCount = (index.size() - ArchiveFormat.HEADER_BYTES) / 8;
+            return new GameArchive(gameSegments, indexSegments, gameCount, games.size());
+        }
+    }
+
+    public long size() {
+        return gameCount;
+    }
+
+    // Game n (0-based) as a new view; use read(n, game) in loops to avoid the allocation.
+    public ArchivedGame game(long n) {
+        return read(n, new ArchivedGame());
+    }
+
+    public ArchivedGame read(long n, ArchivedGame game) {
+        if (n < 0 || n >= gameCount) {
+            throw new IndexOutOfBoundsException("Game " + n + " of " + gameCount);
+        }
+        return point(game, n, offset(n));
+    }
+
+    // Visits games [from, to) in file order through one reused view. Only the first game goes
+    // through the index; the rest are found by walking the records.
+    public void forEach(long from, long to, Consumer<ArchivedGame> action) {
+        if (from >= to) {
+            return;
+        }
+        ArchivedGame game = new ArchivedGame();
+        long offset = offset(from);
+        for (long n = from; n < to; n++) {
+            point(game, n, offset);
+            action.accept(game);
+            offset += game.getRecordLength();
+        }
+    }
+
+    public void forEach(Consumer<ArchivedGame> action) {
+        forEach(0, gameCount, action);
+    }
+
+    private ArchivedGame point(ArchivedGame game, long n, long offset) {
+        if (offset < ArchiveFormat.HEADER_BYTES || offset >= gameFileSize) {
+            throw new IllegalStateException("Corrupt archive index at game " + n);
+        }
+        game.point(n, gameSegments[(int) (offset >>> SEGMENT_SHIFT)], (int) (offset & (SEGMENT_SIZE - 1)));
+        return game;
+    }
+
+    private long offset(long n) {
+        long position = ArchiveFormat.HEADER_BYTES + n * 8;
+        return indexSegments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private static MappedByteBuffer[] map(FileChannel channel, int overlap) throws IOException {
+        long size = channel.size();
+        int segmentCount = (int) Math.max(1, (size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long start = (long) i << SEGMENT_SHIFT;
+            long length = Math.min(size - start, SEGMENT_SIZE + overlap);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,28 @@
+package book;
+
+import core.Move;
+
+// A legal move from the book together with its Polyglot weight.
+public final class BookMove {
+    private final int move;
+    private final int weight;
+
+    public BookMove(int move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+
+    // Packed core.Move, as returned by Board.generateLegalMoves.
+    public int getMove() {
+        return move;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return Move.toUci(move) + " (weight " + weight + ")";
+    }
+}
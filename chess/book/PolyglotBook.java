@@ -0,0 +1,158 @@
+package book;
+
+import core.Bitboards;
+import core.Board;
+import core.Move;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+// Read-only Polyglot opening book (.bin): 16-byte big-endian entries of key, move, weight and learn
+// data, sorted by key. The file is memory-mapped rather than read onto the heap, and only absolute
+// reads touch the mappings, so one instance can serve any number of threads.
+public final class PolyglotBook {
+    private static final int ENTRY_SIZE = 16;
+    // A single mapping is limited to 2 GB, so larger books are mapped in 1 GB segments.
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+
+    private PolyglotBook(MappedByteBuffer[] segments, long entryCount) {
+        this.segments = segments;
+        this.entryCount = entryCount;
+    }
+
+    public static PolyglotBook open(Path path) throws IOException {
+        // The mappings stay valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0) {
+                throw new IOException(path + ": size is not a multiple of " + ENTRY_SIZE + " bytes");
+            }
+
+            long entryCount = size / ENTRY_SIZE;
+            int segmentCount = (int) ((entryCount + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long entries = Math.min(entryCount - first, 1L << SEGMENT_SHIFT);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * ENTRY_SIZE, entries * ENTRY_SIZE);
+            }
+            return new PolyglotBook(segments, entryCount);
+        }
+    }
+
+    public long size() {
+        return entryCount;
+    }
+
+    // Legal book moves for the position in file order (books store the heaviest first);
+    // empty when the position is not in the book.
+    public List<BookMove> lookup(Board board) {
+        long key = PolyglotKey.key(board);
+        long index = firstEntry(key);
+        if (index == entryCount || entryKey(index) != key) {
+            return List.of();
+        }
+
+        int[] legalMoves = new int[Board.MAX_MOVES];
+        int legalCount = board.generateLegalMoves(legalMoves);
+        List<BookMove> moves = new ArrayList<>();
+        for (; index < entryCount && entryKey(index) == key; index++) {
+            int move = toLegalMove(entryMove(index), board, legalMoves, legalCount);
+            if (move != Move.NONE) {
+                moves.add(new BookMove(move, entryWeight(index)));
+            }
+        }
+        return moves;
+    }
+
+    // Book move chosen with probability proportional to its weight, or Move.NONE when the position
+    // is out of book or every entry has weight 0.
+    public int pickMove(Board board, RandomGenerator random) {
+        List<BookMove> moves = lookup(board);
+        long totalWeight = 0;
+        for (BookMove move : moves) {
+            totalWeight += move.getWeight();
+        }
+        if (totalWeight == 0) {
+            return Move.NONE;
+        }
+
+        long pick = random.nextLong(totalWeight);
+        for (BookMove move : moves) {
+            pick -= move.getWeight();
+            if (pick < 0) {
+                return move.getMove();
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Index of the first entry whose key is not below the given key (keys compare unsigned).
+    private long firstEntry(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(entryKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long entryKey(long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    private int entryMove(long index) {
+        return segment(index).getShort(offset(index) + 8) & 0xFFFF;
+    }
+
+    private int entryWeight(long index) {
+        return segment(index).getShort(offset(index) + 10) & 0xFFFF;
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index & SEGMENT_MASK) * ENTRY_SIZE;
+    }
+
+    // Polyglot moves pack to file, to row, from file, from row and promotion piece in 3 bits each,
+    // with rows counted from rank 1. Castling is written as the king taking its own rook.
+    private static int toLegalMove(int bookMove, Board board, int[] legalMoves, int legalCount) {
+        int toY = bookMove & 7;
+        int toX = 7 - ((bookMove >>> 3) & 7);
+        int fromY = (bookMove >>> 6) & 7;
+        int fromX = 7 - ((bookMove >>> 9) & 7);
+        int promotion = (bookMove >>> 12) & 7;
+
+        int from = Bitboards.square(fromX, fromY);
+        if (from == board.getKingSquare(board.getCurrentTurn()) && fromY == 4 && toX == fromX && (toY == 7 || toY == 0)) {
+            toY = toY == 7 ? 6 : 2;
+        }
+        int to = Bitboards.square(toX, toY);
+
+        for (int i = 0; i < legalCount; i++) {
+            int move = legalMoves[i];
+            if (Move.from(move) == from && Move.to(move) == to && Move.promotionType(move) == promotion) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+}
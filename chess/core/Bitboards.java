@@ -0,0 +1,141 @@
+package core;
+
+// Precomputed attack tables for the bitboard backend.
+// Square index is x * 8 + y, so bit 0 is (0, 0) and bit 63 is (7, 7).
+public final class Bitboards {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Ray directions as (xStep, yStep). The first four move to higher square indexes.
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {0, 1}, {1, 1}, {1, -1},
+            {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}
+    };
+    private static final long[][] RAYS = new long[8][64];
+    private static final long[][] BETWEEN = new long[64][64];
+
+    static {
+        int[][] knightSteps = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                int square = square(x, y);
+
+                for (int[] step : knightSteps) {
+                    KNIGHT_ATTACKS[square] |= bitIfInside(x + step[0], y + step[1]);
+                }
+
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        if (dx != 0 || dy != 0) {
+                            KING_ATTACKS[square] |= bitIfInside(x + dx, y + dy);
+                        }
+                    }
+                }
+
+                // White pawns move toward row 0, black pawns toward row 7.
+                PAWN_ATTACKS[WHITE][square] = bitIfInside(x - 1, y - 1) | bitIfInside(x - 1, y + 1);
+                PAWN_ATTACKS[BLACK][square] = bitIfInside(x + 1, y - 1) | bitIfInside(x + 1, y + 1);
+
+                for (int direction = 0; direction < 8; direction++) {
+                    int rayX = x + DIRECTIONS[direction][0];
+                    int rayY = y + DIRECTIONS[direction][1];
+                    while (rayX >= 0 && rayX < 8 && rayY >= 0 && rayY < 8) {
+                        BETWEEN[square][square(rayX, rayY)] = RAYS[direction][square];
+                        RAYS[direction][square] |= bit(square(rayX, rayY));
+                        rayX += DIRECTIONS[direction][0];
+                        rayY += DIRECTIONS[direction][1];
+                    }
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static int square(int x, int y) {
+        return x * 8 + y;
+    }
+
+    public static int squareX(int square) {
+        return square >>> 3;
+    }
+
+    public static int squareY(int square) {
+        return square & 7;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    private static long bitIfInside(int x, int y) {
+        if (x < 0 || x >= 8 || y < 0 || y >= 8) {
+            return 0L;
+        }
+        return bit(square(x, y));
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    public static long rookAttacks(int square, long occupancy) {
+        return Magics.rookAttacks(square, occupancy);
+    }
+
+    public static long bishopAttacks(int square, long occupancy) {
+        return Magics.bishopAttacks(square, occupancy);
+    }
+
+    // Ray-walking versions, used to build the magic tables.
+    static long rookAttacksByRays(int square, long occupancy) {
+        return rayAttacks(0, square, occupancy)
+                | rayAttacks(1, square, occupancy)
+                | rayAttacks(4, square, occupancy)
+                | rayAttacks(5, square, occupancy);
+    }
+
+    static long bishopAttacksByRays(int square, long occupancy) {
+        return rayAttacks(2, square, occupancy)
+                | rayAttacks(3, square, occupancy)
+                | rayAttacks(6, square, occupancy)
+                | rayAttacks(7, square, occupancy);
+    }
+
+    // Squares strictly between two squares on a shared row, column or diagonal; 0 when not aligned.
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    // Cuts the ray off behind the nearest blocker; the blocker itself stays attacked.
+    private static long rayAttacks(int direction, int square, long occupancy) {
+        long attacks = RAYS[direction][square];
+        long blockers = attacks & occupancy;
+        if (blockers == 0) {
+            return attacks;
+        }
+
+        int blocker = direction < 4
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return attacks ^ RAYS[direction][blocker];
+    }
+}
@@ -6,9 +6,12 @@ import pieces.Knight;
 import pieces.Pawn;
 import pieces.Piece;
 import pieces.PieceColor;
+import pieces.PieceType;
 import pieces.Queen;
 import pieces.Rook;
 
+import java.util.Arrays;
+
 public class Board {
     private final Square[][] boxes = new Square[8][8];
     private PieceColor currentTurn = PieceColor.WHITE;
@@ -23,6 +26,66 @@ public class Board {
     private int pendingPromotionY = -1;
     private PieceColor pendingPromotionColor = null;
 
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    private int castlingRights = 0;
+
+    // FEN move counters: plies since the last pawn move or capture, and the full move number.
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    // Zobrist keys of the positions reached so far, the current one last, for repetition checks.
+    // A ring buffer indexed by keyCount: it grows with the game up to KEY_HISTORY_CAPACITY and then
+    // overwrites the oldest keys. Scans never go back further than the halfmove clock, which stops
+    // the game at FIFTY_MOVE_PLIES, so the capacity covers that window plus the deepest search line.
+    private static final int KEY_HISTORY_CAPACITY = 512;
+    private long[] keyHistory = new long[16];
+    private int keyCount = 0;
+    // Squares where x + y is even, a8 and h1 among them.
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    // Undo records for makeMove/unmakeMove; entries are created on first use and reused. The stack
+    // starts small, since servers keep thousands of idle boards, and doubles on demand up to the
+    // deepest line a search will play (MAX_PLY) and beyond for long game replays.
+    public static final int MAX_PLY = 256;
+    private static final int INITIAL_UNDO_CAPACITY = 16;
+    private MoveUndo[] undoStack = new MoveUndo[INITIAL_UNDO_CAPACITY];
+    private int ply = 0;
+
+    // Upper bound on the number of moves in any position; callers size their move buffers with it.
+    public static final int MAX_MOVES = 256;
+    private final int[] scratchMoves = new int[MAX_MOVES];
+    // Pieces taken off the board by resetFromFen, kept per (color, type) so pooled boards can be
+    // reloaded without allocating new pieces.
+    private Piece[][] sparePieces;
+    private int[] spareCounts;
+    // Pin ray per pinned square, only meaningful for squares in the current pinned set.
+    private final long[] pinRays = new long[64];
+    // Promotion pieces reused per ply and color by makeMove(int), created on first use.
+    private Piece[] promotionPieces = new Piece[INITIAL_UNDO_CAPACITY * 8];
+
+    // Bitboard backend: one long per (color, piece type) plus occupancy masks.
+    // The Square grid is kept in sync as a read view for the GUI.
+    private final long[] pieceBitboards = new long[12];
+    private final long[] colorOccupancy = new long[2];
+    private long occupancy = 0L;
+    // King square per color (square index, -1 when absent), kept current by setPieceAt.
+    private final int[] kingSquares = {-1, -1};
+
+    // Zobrist hash of placement, side to move, castling rights and en passant file, updated incrementally.
+    // The file only counts while an enemy pawn stands next to the pushed pawn: otherwise the position
+    // right after a double push would never match its later repeats.
+    private long zobristKey = 0L;
+    // Zobrist hash of the pawns alone, for caching pawn-structure evaluation.
+    private long pawnKey = 0L;
+    // Material plus piece-square sums from White's side and the game phase, updated with the bitboards.
+    private int middlegameScore = 0;
+    private int endgameScore = 0;
+    private int gamePhase = 0;
+
     public Board() {
         this(true);
     }
@@ -40,6 +103,56 @@ public class Board {
         return boxes[x][y];
     }
 
+    public long getPieceBitboard(PieceColor color, PieceType type) {
+        return pieceBitboards[bitboardIndex(color.ordinal(), type.ordinal())];
+    }
+
+    public long getOccupancy(PieceColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    public long getOccupancy() {
+        return occupancy;
+    }
+
+    // Square index (x * 8 + y) of the king of the given color, or -1 if it is not on the board.
+    public int getKingSquare(PieceColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    // Type of the piece on a square index, or null when the square is empty.
+    public PieceType getPieceType(int square) {
+        Piece piece = boxes[Bitboards.squareX(square)][Bitboards.squareY(square)].getPiece();
+        return piece == null ? null : piece.getType();
+    }
+
+    public int getPieceCount(PieceColor color) {
+        return Long.bitCount(colorOccupancy[color.ordinal()]);
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    // Material plus piece-square score from White's side with middlegame weights.
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    // Same with endgame weights.
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    // Remaining non-pawn material in PieceSquareTables phase units; MAX_PHASE in the opening.
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
     public boolean isInsideBoard(int x, int y) {
         return x >= 0 && x < 8 && y >= 0 && y < 8;
     }
@@ -60,6 +173,23 @@ public class Board {
         return statusMessage;
     }
 
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    // Square index of the pawn that can be captured en passant this turn, or -1.
+    public int getEnPassantPawnSquare() {
+        return enPassantPawnX == -1 ? -1 : Bitboards.square(enPassantPawnX, enPassantPawnY);
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
     public boolean hasPendingPromotion() {
         return pendingPromotionColor != null;
     }
@@ -99,15 +229,14 @@ public class Board {
             return false;
         }
 
-        Board simulation = deepCopy();
-        simulation.applyMoveUnchecked(startX, startY, endX, endY);
-        if (simulation.isKingInCheck(currentTurn)) {
+        if (!isLegalMove(startX, startY, endX, endY)) {
             statusMessage = "Illegal move: your king would be in check.";
             return false;
         }
 
         applyMoveUnchecked(startX, startY, endX, endY);
-        currentTurn = opposite(currentTurn);
+        switchTurn();
+        recordPosition();
 
         if (hasPendingPromotion()) {
             statusMessage = "Promote " + pendingPromotionColor + " pawn.";
@@ -123,14 +252,15 @@ public class Board {
             return false;
         }
 
-        Square promotionSquare = getBox(pendingPromotionX, pendingPromotionY);
         Piece promotedPiece = createPromotionPiece(pieceName, pendingPromotionColor);
         if (promotedPiece == null) {
             return false;
         }
 
         promotedPiece.setHasMoved(true);
-        promotionSquare.setPiece(promotedPiece);
+        setPieceAt(pendingPromotionX, pendingPromotionY, promotedPiece);
+        // The position recorded by movePiece still had the pawn on the last rank.
+        keyHistory[(keyCount - 1) & (keyHistory.length - 1)] = zobristKey;
 
         pendingPromotionX = -1;
         pendingPromotionY = -1;
@@ -160,7 +290,7 @@ public class Board {
 
     private void updateGameStateAfterTurn() {
         boolean opponentInCheck = isKingInCheck(currentTurn);
-        boolean opponentHasMove = hasAnyLegalMoves(currentTurn);
+        boolean opponentHasMove = hasAnyLegalMoves();
 
         if (!opponentHasMove && opponentInCheck) {
             gameOver = true;
@@ -170,69 +300,119 @@ public class Board {
             gameOver = true;
             winner = null;
             statusMessage = "Stalemate.";
+        } else if (halfmoveClock >= FIFTY_MOVE_PLIES) {
+            gameOver = true;
+            winner = null;
+            statusMessage = "Draw by the fifty-move rule.";
+        } else if (isThreefoldRepetition()) {
+            gameOver = true;
+            winner = null;
+            statusMessage = "Draw by threefold repetition.";
+        } else if (isInsufficientMaterial()) {
+            gameOver = true;
+            winner = null;
+            statusMessage = "Draw by insufficient material.";
         } else if (opponentInCheck) {
-            statusMessage = "Check on " + currentTurn + ".";
+            statusMessage = currentTurn == PieceColor.WHITE ? "Check on WHITE." : "Check on BLACK.";
         } else {
-            statusMessage = "Turn: " + currentTurn;
+            statusMessage = currentTurn == PieceColor.WHITE ? "Turn: WHITE" : "Turn: BLACK";
         }
     }
 
-    public boolean isPathClearStraight(Square start, Square end) {
-        if (start.getX() == end.getX()) {
-            int yStep = end.getY() > start.getY() ? 1 : -1;
-            for (int y = start.getY() + yStep; y != end.getY(); y += yStep) {
-                if (getBox(start.getX(), y).getPiece() != null) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
-        if (start.getY() == end.getY()) {
-            int xStep = end.getX() > start.getX() ? 1 : -1;
-            for (int x = start.getX() + xStep; x != end.getX(); x += xStep) {
-                if (getBox(x, start.getY()).getPiece() != null) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
-        return false;
+    // True when the current position occurred before since the last capture or pawn move; the
+    // search scores such a position as a draw, since the side that repeated can repeat again.
+    public boolean isRepetition() {
+        return countEarlierOccurrences(1) >= 1;
     }
 
-    public boolean isPathClearDiagonal(Square start, Square end) {
-        int xDiff = end.getX() - start.getX();
-        int yDiff = end.getY() - start.getY();
+    public boolean isThreefoldRepetition() {
+        return countEarlierOccurrences(2) >= 2;
+    }
 
-        if (Math.abs(xDiff) != Math.abs(yDiff) || xDiff == 0) {
+    // Neither side can mate: bare kings, a single minor piece, or only bishops all on one square color.
+    public boolean isInsufficientMaterial() {
+        long heavy = 0L;
+        for (int color = 0; color < 2; color++) {
+            heavy |= pieceBitboards[bitboardIndex(color, PieceType.PAWN.ordinal())]
+                    | pieceBitboards[bitboardIndex(color, PieceType.ROOK.ordinal())]
+                    | pieceBitboards[bitboardIndex(color, PieceType.QUEEN.ordinal())];
+        }
+        if (heavy != 0) {
             return false;
         }
+        long knights = pieceBitboards[bitboardIndex(0, PieceType.KNIGHT.ordinal())]
+                | pieceBitboards[bitboardIndex(1, PieceType.KNIGHT.ordinal())];
+        long bishops = pieceBitboards[bitboardIndex(0, PieceType.BISHOP.ordinal())]
+                | pieceBitboards[bitboardIndex(1, PieceType.BISHOP.ordinal())];
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
 
-        int xStep = xDiff > 0 ? 1 : -1;
-        int yStep = yDiff > 0 ? 1 : -1;
-
-        int x = start.getX() + xStep;
-        int y = start.getY() + yStep;
+    // Fifty-move rule, threefold repetition or insufficient material.
+    public boolean isDrawByRule() {
+        return halfmoveClock >= FIFTY_MOVE_PLIES || isThreefoldRepetition() || isInsufficientMaterial();
+    }
 
-        while (x != end.getX() && y != end.getY()) {
-            if (getBox(x, y).getPiece() != null) {
-                return false;
+    // Compares the current key with those of the positions with the same side to move, back to the
+    // last irreversible move, stopping once enough matches are found.
+    private int countEarlierOccurrences(int wanted) {
+        int mask = keyHistory.length - 1;
+        int last = keyCount - 1;
+        int limit = Math.min(Math.min(halfmoveClock, last), mask);
+        int found = 0;
+        for (int back = 4; back <= limit; back += 2) {
+            if (keyHistory[(last - back) & mask] == zobristKey && ++found == wanted) {
+                break;
             }
-            x += xStep;
-            y += yStep;
         }
+        return found;
+    }
 
-        return true;
+    private void recordPosition() {
+        if (keyCount == keyHistory.length && keyHistory.length < KEY_HISTORY_CAPACITY) {
+            // Nothing has wrapped yet, so the keys are still in order.
+            keyHistory = Arrays.copyOf(keyHistory, keyHistory.length * 2);
+        }
+        keyHistory[keyCount & (keyHistory.length - 1)] = zobristKey;
+        keyCount++;
+    }
+
+    // True when start and end share a row or column and nothing stands between them.
+    public boolean isPathClearStraight(Square start, Square end) {
+        int from = Bitboards.square(start.getX(), start.getY());
+        int to = Bitboards.square(end.getX(), end.getY());
+        return (Bitboards.rookAttacks(from, occupancy) & Bitboards.bit(to)) != 0;
+    }
+
+    // True when start and end share a diagonal and nothing stands between them.
+    public boolean isPathClearDiagonal(Square start, Square end) {
+        int from = Bitboards.square(start.getX(), start.getY());
+        int to = Bitboards.square(end.getX(), end.getY());
+        return (Bitboards.bishopAttacks(from, occupancy) & Bitboards.bit(to)) != 0;
     }
 
     public void resetBoard() {
         for (int x = 0; x < 8; x++) {
             for (int y = 0; y < 8; y++) {
-                boxes[x][y] = new Square(x, y, null);
+                if (boxes[x][y] == null) {
+                    boxes[x][y] = new Square(x, y, null);
+                } else {
+                    boxes[x][y].setPiece(null);
+                }
             }
         }
-
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorOccupancy, 0L);
+        occupancy = 0L;
+        Arrays.fill(kingSquares, -1);
+
+        zobristKey = 0L;
+        pawnKey = 0L;
+        middlegameScore = 0;
+        endgameScore = 0;
+        gamePhase = 0;
         currentTurn = PieceColor.WHITE;
         gameOver = false;
         winner = null;
@@ -242,35 +422,321 @@ public class Board {
         pendingPromotionX = -1;
         pendingPromotionY = -1;
         pendingPromotionColor = null;
+        castlingRights = 0;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        ply = 0;
+        keyCount = 0;
     }
 
     public void setupStartingPosition() {
         resetBoard();
+        setCastlingRights(WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE);
 
         for (int y = 0; y < 8; y++) {
-            getBox(6, y).setPiece(new Pawn(PieceColor.WHITE));
-            getBox(1, y).setPiece(new Pawn(PieceColor.BLACK));
+            setPieceAt(6, y, new Pawn(PieceColor.WHITE));
+            setPieceAt(1, y, new Pawn(PieceColor.BLACK));
         }
 
         // White back rank (row 7): two rooks at both corners.
-        getBox(7, 0).setPiece(new Rook(PieceColor.WHITE));
-        getBox(7, 1).setPiece(new Knight(PieceColor.WHITE));
-        getBox(7, 2).setPiece(new Bishop(PieceColor.WHITE));
-        getBox(7, 3).setPiece(new Queen(PieceColor.WHITE));
-        getBox(7, 4).setPiece(new King(PieceColor.WHITE));
-        getBox(7, 5).setPiece(new Bishop(PieceColor.WHITE));
-        getBox(7, 6).setPiece(new Knight(PieceColor.WHITE));
-        getBox(7, 7).setPiece(new Rook(PieceColor.WHITE));
+        setPieceAt(7, 0, new Rook(PieceColor.WHITE));
+        setPieceAt(7, 1, new Knight(PieceColor.WHITE));
+        setPieceAt(7, 2, new Bishop(PieceColor.WHITE));
+        setPieceAt(7, 3, new Queen(PieceColor.WHITE));
+        setPieceAt(7, 4, new King(PieceColor.WHITE));
+        setPieceAt(7, 5, new Bishop(PieceColor.WHITE));
+        setPieceAt(7, 6, new Knight(PieceColor.WHITE));
+        setPieceAt(7, 7, new Rook(PieceColor.WHITE));
 
         // Black back rank (row 0): two rooks at both corners.
-        getBox(0, 0).setPiece(new Rook(PieceColor.BLACK));
-        getBox(0, 1).setPiece(new Knight(PieceColor.BLACK));
-        getBox(0, 2).setPiece(new Bishop(PieceColor.BLACK));
-        getBox(0, 3).setPiece(new Queen(PieceColor.BLACK));
-        getBox(0, 4).setPiece(new King(PieceColor.BLACK));
-        getBox(0, 5).setPiece(new Bishop(PieceColor.BLACK));
-        getBox(0, 6).setPiece(new Knight(PieceColor.BLACK));
-        getBox(0, 7).setPiece(new Rook(PieceColor.BLACK));
+        setPieceAt(0, 0, new Rook(PieceColor.BLACK));
+        setPieceAt(0, 1, new Knight(PieceColor.BLACK));
+        setPieceAt(0, 2, new Bishop(PieceColor.BLACK));
+        setPieceAt(0, 3, new Queen(PieceColor.BLACK));
+        setPieceAt(0, 4, new King(PieceColor.BLACK));
+        setPieceAt(0, 5, new Bishop(PieceColor.BLACK));
+        setPieceAt(0, 6, new Knight(PieceColor.BLACK));
+        setPieceAt(0, 7, new Rook(PieceColor.BLACK));
+        recordPosition();
+    }
+
+    public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static Board fromFen(CharSequence fen) {
+        Board board = new Board();
+        board.resetFromFen(fen);
+        return board;
+    }
+
+    // Loads a FEN position into this board in place, reusing its squares and pieces, so pooled
+    // boards can be reloaded without allocation. Reads the characters directly (no regex or split).
+    // Throws IllegalArgumentException on malformed input, leaving the board in an unspecified state.
+    public void resetFromFen(CharSequence fen) {
+        recyclePieces();
+        resetBoard();
+
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+        int x = 0;
+        int y = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (y != 8 || x == 7) {
+                    throw invalidFen(fen, "bad rank length");
+                }
+                x++;
+                y = 0;
+            } else if (c >= '1' && c <= '8') {
+                y += c - '0';
+                if (y > 8) {
+                    throw invalidFen(fen, "bad rank length");
+                }
+            } else {
+                PieceType type = pieceTypeForFenChar(c);
+                if (type == null || y > 7) {
+                    throw invalidFen(fen, "bad piece placement");
+                }
+                PieceColor color = Character.isUpperCase(c) ? PieceColor.WHITE : PieceColor.BLACK;
+                setPieceAt(x, y, acquirePiece(type, color));
+                y++;
+            }
+        }
+        if (x != 7 || y != 8) {
+            throw invalidFen(fen, "expected 8 ranks");
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) == 'b') {
+            currentTurn = PieceColor.BLACK;
+        } else if (i >= length || fen.charAt(i) != 'w') {
+            throw invalidFen(fen, "bad side to move");
+        }
+        i = skipSpaces(fen, i + 1);
+
+        int rights = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' -> rights |= WHITE_KINGSIDE;
+                case 'Q' -> rights |= WHITE_QUEENSIDE;
+                case 'k' -> rights |= BLACK_KINGSIDE;
+                case 'q' -> rights |= BLACK_QUEENSIDE;
+                case '-' -> {
+                }
+                default -> throw invalidFen(fen, "bad castling rights");
+            }
+        }
+        castlingRights = rights & castlingRightsBackedByPieces();
+        i = skipSpaces(fen, i);
+
+        if (i < length && fen.charAt(i) != '-') {
+            if (i + 1 >= length) {
+                throw invalidFen(fen, "bad en passant square");
+            }
+            int targetY = fen.charAt(i) - 'a';
+            int targetX = '8' - fen.charAt(i + 1);
+            if (targetY < 0 || targetY > 7 || (targetX != 2 && targetX != 5)) {
+                throw invalidFen(fen, "bad en passant square");
+            }
+            // The pawn that just made the double step stands one row past the target square.
+            int pawnX = currentTurn == PieceColor.WHITE ? targetX + 1 : targetX - 1;
+            Piece pawn = boxes[pawnX][targetY].getPiece();
+            if (pawn instanceof Pawn && pawn.getColor() != currentTurn) {
+                enPassantPawnX = pawnX;
+                enPassantPawnY = targetY;
+            }
+            i += 2;
+        } else {
+            i++;
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            int start = i;
+            halfmoveClock = 0;
+            for (; i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9'; i++) {
+                halfmoveClock = halfmoveClock * 10 + (fen.charAt(i) - '0');
+            }
+            if (i == start) {
+                throw invalidFen(fen, "bad halfmove clock");
+            }
+
+            i = skipSpaces(fen, i);
+            if (i < length) {
+                fullmoveNumber = 0;
+                for (; i < length && fen.charAt(i) >= '0' && fen.charAt(i) <= '9'; i++) {
+                    fullmoveNumber = fullmoveNumber * 10 + (fen.charAt(i) - '0');
+                }
+                fullmoveNumber = Math.max(1, fullmoveNumber);
+            }
+        }
+
+        if (Long.bitCount(pieceBitboards[bitboardIndex(0, PieceType.KING.ordinal())]) != 1
+                || Long.bitCount(pieceBitboards[bitboardIndex(1, PieceType.KING.ordinal())]) != 1) {
+            throw invalidFen(fen, "each side needs exactly one king");
+        }
+
+        zobristKey = computeZobristKey();
+        recordPosition();
+        updateGameStateAfterTurn();
+    }
+
+    // Appends the position as FEN to the caller's builder and returns it.
+    public StringBuilder toFen(StringBuilder out) {
+        for (int x = 0; x < 8; x++) {
+            int empty = 0;
+            for (int y = 0; y < 8; y++) {
+                Piece piece = boxes[x][y].getPiece();
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char symbol = FEN_PIECE_CHARS.charAt(piece.getType().ordinal());
+                out.append(piece.getColor() == PieceColor.WHITE ? symbol : Character.toLowerCase(symbol));
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (x < 7) {
+                out.append('/');
+            }
+        }
+
+        out.append(currentTurn == PieceColor.WHITE ? " w " : " b ");
+
+        if (castlingRights == 0) {
+            out.append('-');
+        } else {
+            if ((castlingRights & WHITE_KINGSIDE) != 0) {
+                out.append('K');
+            }
+            if ((castlingRights & WHITE_QUEENSIDE) != 0) {
+                out.append('Q');
+            }
+            if ((castlingRights & BLACK_KINGSIDE) != 0) {
+                out.append('k');
+            }
+            if ((castlingRights & BLACK_QUEENSIDE) != 0) {
+                out.append('q');
+            }
+        }
+
+        out.append(' ');
+        if (enPassantPawnX == -1) {
+            out.append('-');
+        } else {
+            int targetX = currentTurn == PieceColor.WHITE ? enPassantPawnX - 1 : enPassantPawnX + 1;
+            out.append((char) ('a' + enPassantPawnY)).append((char) ('8' - targetX));
+        }
+
+        out.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return out;
+    }
+
+    public String toFen() {
+        return toFen(new StringBuilder(90)).toString();
+    }
+
+    private static final String FEN_PIECE_CHARS = "PNBRQK";
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private static PieceType pieceTypeForFenChar(char c) {
+        int index = FEN_PIECE_CHARS.indexOf(Character.toUpperCase(c));
+        return index < 0 ? null : PIECE_TYPES[index];
+    }
+
+    private static int skipSpaces(CharSequence text, int index) {
+        while (index < text.length() && text.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static IllegalArgumentException invalidFen(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN (" + reason + "): " + fen);
+    }
+
+    // Drops castling rights whose king or rook is not on its starting square.
+    private int castlingRightsBackedByPieces() {
+        int rights = 0;
+        if (isPieceAt(7, 4, PieceType.KING, PieceColor.WHITE)) {
+            if (isPieceAt(7, 7, PieceType.ROOK, PieceColor.WHITE)) {
+                rights |= WHITE_KINGSIDE;
+            }
+            if (isPieceAt(7, 0, PieceType.ROOK, PieceColor.WHITE)) {
+                rights |= WHITE_QUEENSIDE;
+            }
+        }
+        if (isPieceAt(0, 4, PieceType.KING, PieceColor.BLACK)) {
+            if (isPieceAt(0, 7, PieceType.ROOK, PieceColor.BLACK)) {
+                rights |= BLACK_KINGSIDE;
+            }
+            if (isPieceAt(0, 0, PieceType.ROOK, PieceColor.BLACK)) {
+                rights |= BLACK_QUEENSIDE;
+            }
+        }
+        return rights;
+    }
+
+    private boolean isPieceAt(int x, int y, PieceType type, PieceColor color) {
+        long bit = Bitboards.bit(Bitboards.square(x, y));
+        return (pieceBitboards[bitboardIndex(color.ordinal(), type.ordinal())] & bit) != 0;
+    }
+
+    private void recyclePieces() {
+        if (sparePieces == null) {
+            sparePieces = new Piece[12][];
+            spareCounts = new int[12];
+        }
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                Square square = boxes[x][y];
+                Piece piece = square == null ? null : square.getPiece();
+                if (piece == null) {
+                    continue;
+                }
+                int index = bitboardIndex(piece.getColor().ordinal(), piece.getType().ordinal());
+                if (sparePieces[index] == null) {
+                    sparePieces[index] = new Piece[16];
+                } else if (spareCounts[index] == sparePieces[index].length) {
+                    sparePieces[index] = Arrays.copyOf(sparePieces[index], spareCounts[index] * 2);
+                }
+                sparePieces[index][spareCounts[index]++] = piece;
+            }
+        }
+    }
+
+    private Piece acquirePiece(PieceType type, PieceColor color) {
+        int index = bitboardIndex(color.ordinal(), type.ordinal());
+        if (spareCounts[index] == 0) {
+            return createPiece(type, color);
+        }
+        Piece piece = sparePieces[index][--spareCounts[index]];
+        sparePieces[index][spareCounts[index]] = null;
+        piece.setHasMoved(false);
+        piece.setKilled(false);
+        return piece;
+    }
+
+    private static Piece createPiece(PieceType type, PieceColor color) {
+        switch (type) {
+            case PAWN:
+                return new Pawn(color);
+            case KNIGHT:
+                return new Knight(color);
+            case BISHOP:
+                return new Bishop(color);
+            case ROOK:
+                return new Rook(color);
+            case QUEEN:
+                return new Queen(color);
+            default:
+                return new King(color);
+        }
     }
 
     public void setupDemoPieces() {
@@ -336,7 +802,7 @@ public class Board {
     }
 
     private boolean canCastle(int row, int kingY, int endY, Piece kingPiece) {
-        if (!(kingPiece instanceof King) || kingPiece.hasMoved()) {
+        if (!(kingPiece instanceof King)) {
             return false;
         }
 
@@ -344,25 +810,33 @@ public class Board {
             return false;
         }
 
+        boolean white = kingPiece.getColor() == PieceColor.WHITE;
         int rookY;
         int step;
+        int requiredRight;
         if (endY == 6) {
             rookY = 7;
             step = 1;
+            requiredRight = white ? WHITE_KINGSIDE : BLACK_KINGSIDE;
         } else if (endY == 2) {
             rookY = 0;
             step = -1;
+            requiredRight = white ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
         } else {
             return false;
         }
 
+        if ((castlingRights & requiredRight) == 0) {
+            return false;
+        }
+
         Square rookSquare = getBox(row, rookY);
         if (rookSquare == null || !(rookSquare.getPiece() instanceof Rook)) {
             return false;
         }
 
         Piece rookPiece = rookSquare.getPiece();
-        if (rookPiece.getColor() != kingPiece.getColor() || rookPiece.hasMoved()) {
+        if (rookPiece.getColor() != kingPiece.getColor()) {
             return false;
         }
 
@@ -390,19 +864,26 @@ public class Board {
         int previousEnPassantX = enPassantPawnX;
         int previousEnPassantY = enPassantPawnY;
 
-        enPassantPawnX = -1;
-        enPassantPawnY = -1;
+        setEnPassantPawn(-1, -1);
+
+        if (piece instanceof Pawn || end.getPiece() != null) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        if (piece.getColor() == PieceColor.BLACK) {
+            fullmoveNumber++;
+        }
 
         if (piece instanceof King && Math.abs(endY - startY) == 2 && startX == endX) {
             int rookStartY = endY == 6 ? 7 : 0;
             int rookEndY = endY == 6 ? 5 : 3;
 
             Square rookStart = getBox(startX, rookStartY);
-            Square rookEnd = getBox(startX, rookEndY);
             Piece rookPiece = rookStart.getPiece();
 
-            rookEnd.setPiece(rookPiece);
-            rookStart.setPiece(null);
+            setPieceAt(startX, rookEndY, rookPiece);
+            setPieceAt(startX, rookStartY, null);
             if (rookPiece != null) {
                 rookPiece.setHasMoved(true);
             }
@@ -415,7 +896,7 @@ public class Board {
                 if (capturedPawn != null) {
                     capturedPawn.setKilled(true);
                 }
-                capturedPawnSquare.setPiece(null);
+                setPieceAt(previousEnPassantX, previousEnPassantY, null);
             }
         }
 
@@ -423,13 +904,15 @@ public class Board {
             end.getPiece().setKilled(true);
         }
 
-        end.setPiece(piece);
-        start.setPiece(null);
+        setPieceAt(endX, endY, piece);
+        setPieceAt(startX, startY, null);
         piece.setHasMoved(true);
 
+        setCastlingRights(castlingRights & castlingRightsKeptAfterTouching(startX, startY)
+                & castlingRightsKeptAfterTouching(endX, endY));
+
         if (piece instanceof Pawn && Math.abs(endX - startX) == 2) {
-            enPassantPawnX = endX;
-            enPassantPawnY = endY;
+            setEnPassantPawn(endX, endY);
         }
 
         if (piece instanceof Pawn) {
@@ -442,124 +925,529 @@ public class Board {
         }
     }
 
+    private static int castlingRightsKeptAfterTouching(int x, int y) {
+        if (x == 7 && y == 4) {
+            return ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if (x == 7 && y == 7) {
+            return ~WHITE_KINGSIDE;
+        }
+        if (x == 7 && y == 0) {
+            return ~WHITE_QUEENSIDE;
+        }
+        if (x == 0 && y == 4) {
+            return ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if (x == 0 && y == 7) {
+            return ~BLACK_KINGSIDE;
+        }
+        if (x == 0 && y == 0) {
+            return ~BLACK_QUEENSIDE;
+        }
+        return ~0;
+    }
+
+    // Applies a pseudo-legal move in place and flips the side to move. The move is not validated;
+    // callers are expected to pair every call with unmakeMove().
+    public void makeMove(int startX, int startY, int endX, int endY) {
+        makeMove(startX, startY, endX, endY, 0);
+    }
+
+    // Same as above for a packed move from generateLegalMoves. Promotions are applied
+    // immediately instead of waiting for promotePendingPawn.
+    public void makeMove(int move) {
+        makeMove(Move.startX(move), Move.startY(move), Move.endX(move), Move.endY(move), Move.promotionType(move));
+    }
+
+    private void makeMove(int startX, int startY, int endX, int endY, int promotionType) {
+        if (ply == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, ply * 2);
+            promotionPieces = Arrays.copyOf(promotionPieces, ply * 2 * 8);
+        }
+
+        MoveUndo undo = undoStack[ply];
+        if (undo == null) {
+            undo = new MoveUndo();
+            undoStack[ply] = undo;
+        }
+        ply++;
+
+        Piece piece = boxes[startX][startY].getPiece();
+        Piece target = boxes[endX][endY].getPiece();
+
+        undo.startX = startX;
+        undo.startY = startY;
+        undo.endX = endX;
+        undo.endY = endY;
+        undo.movedPiece = piece;
+        undo.movedPieceHadMoved = piece.hasMoved();
+        undo.castling = piece instanceof King && Math.abs(endY - startY) == 2 && startX == endX;
+        undo.enPassantPawnX = enPassantPawnX;
+        undo.enPassantPawnY = enPassantPawnY;
+        undo.castlingRights = castlingRights;
+        undo.halfmoveClock = halfmoveClock;
+        undo.fullmoveNumber = fullmoveNumber;
+        undo.zobristKey = zobristKey;
+        undo.pendingPromotionX = pendingPromotionX;
+        undo.pendingPromotionY = pendingPromotionY;
+        undo.pendingPromotionColor = pendingPromotionColor;
+
+        if (target != null) {
+            undo.capturedPiece = target;
+            undo.capturedX = endX;
+            undo.capturedY = endY;
+        } else if (piece instanceof Pawn && Math.abs(endY - startY) == 1
+                && enPassantPawnX == startX && enPassantPawnY == endY) {
+            undo.capturedPiece = boxes[enPassantPawnX][enPassantPawnY].getPiece();
+            undo.capturedX = enPassantPawnX;
+            undo.capturedY = enPassantPawnY;
+        } else {
+            undo.capturedPiece = null;
+            undo.capturedX = -1;
+            undo.capturedY = -1;
+        }
+
+        applyMoveUnchecked(startX, startY, endX, endY);
+        if (promotionType != 0 && pendingPromotionColor != null) {
+            setPieceAt(endX, endY, promotionPiece(ply - 1, pendingPromotionColor, promotionType));
+            pendingPromotionX = undo.pendingPromotionX;
+            pendingPromotionY = undo.pendingPromotionY;
+            pendingPromotionColor = undo.pendingPromotionColor;
+        }
+        switchTurn();
+        recordPosition();
+    }
+
+    private Piece promotionPiece(int atPly, PieceColor color, int promotionType) {
+        int index = atPly * 8 + color.ordinal() * 4 + (promotionType - 1);
+        Piece piece = promotionPieces[index];
+        if (piece == null) {
+            piece = createPromotionPiece(PieceType.values()[promotionType].name(), color);
+            promotionPieces[index] = piece;
+        }
+        piece.setHasMoved(true);
+        piece.setKilled(false);
+        return piece;
+    }
+
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to undo.");
+        }
+
+        MoveUndo undo = undoStack[--ply];
+        switchTurn();
+        keyCount--;
+
+        setPieceAt(undo.endX, undo.endY, null);
+        setPieceAt(undo.startX, undo.startY, undo.movedPiece);
+        undo.movedPiece.setHasMoved(undo.movedPieceHadMoved);
+
+        if (undo.capturedPiece != null) {
+            undo.capturedPiece.setKilled(false);
+            setPieceAt(undo.capturedX, undo.capturedY, undo.capturedPiece);
+        }
+
+        if (undo.castling) {
+            int rookStartY = undo.endY == 6 ? 7 : 0;
+            int rookEndY = undo.endY == 6 ? 5 : 3;
+            Piece rookPiece = boxes[undo.startX][rookEndY].getPiece();
+            setPieceAt(undo.startX, rookEndY, null);
+            setPieceAt(undo.startX, rookStartY, rookPiece);
+            if (rookPiece != null) {
+                rookPiece.setHasMoved(false);
+            }
+        }
+
+        enPassantPawnX = undo.enPassantPawnX;
+        enPassantPawnY = undo.enPassantPawnY;
+        castlingRights = undo.castlingRights;
+        halfmoveClock = undo.halfmoveClock;
+        fullmoveNumber = undo.fullmoveNumber;
+        zobristKey = undo.zobristKey;
+        pendingPromotionX = undo.pendingPromotionX;
+        pendingPromotionY = undo.pendingPromotionY;
+        pendingPromotionColor = undo.pendingPromotionColor;
+        undo.movedPiece = null;
+        undo.capturedPiece = null;
+    }
+
+    private void setPieceAt(int x, int y, Piece piece) {
+        Square square = boxes[x][y];
+        long mask = Bitboards.bit(Bitboards.square(x, y));
+
+        Piece previous = square.getPiece();
+        if (previous != null) {
+            int color = previous.getColor().ordinal();
+            int type = previous.getType().ordinal();
+            pieceBitboards[bitboardIndex(color, type)] &= ~mask;
+            zobristKey ^= Zobrist.piece(color, type, Bitboards.square(x, y));
+            if (previous instanceof Pawn) {
+                pawnKey ^= Zobrist.piece(color, type, Bitboards.square(x, y));
+            }
+            middlegameScore -= PieceSquareTables.middlegame(color, type, Bitboards.square(x, y));
+            endgameScore -= PieceSquareTables.endgame(color, type, Bitboards.square(x, y));
+            gamePhase -= PieceSquareTables.phase(type);
+            colorOccupancy[color] &= ~mask;
+            occupancy &= ~mask;
+            if (previous instanceof King && kingSquares[color] == Bitboards.square(x, y)) {
+                kingSquares[color] = -1;
+            }
+        }
+
+        if (piece != null) {
+            int color = piece.getColor().ordinal();
+            int type = piece.getType().ordinal();
+            pieceBitboards[bitboardIndex(color, type)] |= mask;
+            zobristKey ^= Zobrist.piece(color, type, Bitboards.square(x, y));
+            if (piece instanceof Pawn) {
+                pawnKey ^= Zobrist.piece(color, type, Bitboards.square(x, y));
+            }
+            middlegameScore += PieceSquareTables.middlegame(color, type, Bitboards.square(x, y));
+            endgameScore += PieceSquareTables.endgame(color, type, Bitboards.square(x, y));
+            gamePhase += PieceSquareTables.phase(type);
+            colorOccupancy[color] |= mask;
+            occupancy |= mask;
+            if (piece instanceof King) {
+                kingSquares[color] = Bitboards.square(x, y);
+            }
+        }
+
+        square.setPiece(piece);
+    }
+
+    private void switchTurn() {
+        currentTurn = opposite(currentTurn);
+        zobristKey ^= Zobrist.blackToMove();
+    }
+
+    private void setCastlingRights(int rights) {
+        zobristKey ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+        castlingRights = rights;
+    }
+
+    // Nothing moves between setting the pawn and clearing it at the start of the next move, so both
+    // calls see the same neighbours and hash the file symmetrically.
+    private void setEnPassantPawn(int x, int y) {
+        if (enPassantPawnX != -1 && canCaptureEnPassant(enPassantPawnX, enPassantPawnY)) {
+            zobristKey ^= Zobrist.enPassantFile(enPassantPawnY);
+        }
+        enPassantPawnX = x;
+        enPassantPawnY = y;
+        if (x != -1 && canCaptureEnPassant(x, y)) {
+            zobristKey ^= Zobrist.enPassantFile(y);
+        }
+    }
+
+    // True when a pawn of the other color stands beside the pawn that just made a double push.
+    private boolean canCaptureEnPassant(int pawnX, int pawnY) {
+        Piece pushed = boxes[pawnX][pawnY].getPiece();
+        if (pushed == null) {
+            return false;
+        }
+        long neighbours = (pawnY > 0 ? Bitboards.bit(Bitboards.square(pawnX, pawnY - 1)) : 0L)
+                | (pawnY < 7 ? Bitboards.bit(Bitboards.square(pawnX, pawnY + 1)) : 0L);
+        int capturer = opposite(pushed.getColor()).ordinal();
+        return (pieceBitboards[bitboardIndex(capturer, PieceType.PAWN.ordinal())] & neighbours) != 0;
+    }
+
+    private long computeZobristKey() {
+        long key = 0L;
+        for (int index = 0; index < pieceBitboards.length; index++) {
+            long pieces = pieceBitboards[index];
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                key ^= Zobrist.piece(index / 6, index % 6, square);
+            }
+        }
+        if (currentTurn == PieceColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        key ^= Zobrist.castling(castlingRights);
+        if (enPassantPawnX != -1 && canCaptureEnPassant(enPassantPawnX, enPassantPawnY)) {
+            key ^= Zobrist.enPassantFile(enPassantPawnY);
+        }
+        return key;
+    }
+
+    private static int bitboardIndex(int color, int type) {
+        return color * 6 + type;
+    }
+
     private PieceColor opposite(PieceColor color) {
         return color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
     }
 
+    public boolean isInCheck() {
+        return isKingInCheck(currentTurn);
+    }
+
     private boolean isKingInCheck(PieceColor kingColor) {
-        Square kingSquare = findKing(kingColor);
-        if (kingSquare == null) {
+        int kingSquare = kingSquares[kingColor.ordinal()];
+        if (kingSquare < 0) {
             return true;
         }
 
-        return isSquareUnderAttack(kingSquare.getX(), kingSquare.getY(), opposite(kingColor));
+        return isSquareUnderAttack(Bitboards.squareX(kingSquare), Bitboards.squareY(kingSquare), opposite(kingColor));
     }
 
-    private Square findKing(PieceColor color) {
-        for (int x = 0; x < 8; x++) {
-            for (int y = 0; y < 8; y++) {
-                Piece piece = getBox(x, y).getPiece();
-                if (piece instanceof King && piece.getColor() == color) {
-                    return getBox(x, y);
-                }
-            }
-        }
-        return null;
+    private boolean isSquareUnderAttack(int targetX, int targetY, PieceColor attackerColor) {
+        return attackersTo(Bitboards.square(targetX, targetY), occupancy, attackerColor.ordinal()) != 0;
     }
 
-    private boolean isSquareUnderAttack(int targetX, int targetY, PieceColor attackerColor) {
-        for (int x = 0; x < 8; x++) {
-            for (int y = 0; y < 8; y++) {
-                Piece piece = getBox(x, y).getPiece();
-                if (piece == null || piece.getColor() != attackerColor) {
-                    continue;
-                }
-                if (canPieceAttackSquare(x, y, targetX, targetY, piece)) {
-                    return true;
-                }
+    // Pieces of both colors attacking a square, with sliders blocked by the given occupancy. Unlike
+    // isSquareUnderAttack it returns the attackers themselves, so exchange evaluation can take them
+    // off one by one and see the sliders behind them.
+    public long getAttackers(int square, long blockers) {
+        return attackersTo(square, blockers, PieceColor.WHITE.ordinal()) | attackersTo(square, blockers, PieceColor.BLACK.ordinal());
+    }
+
+    // Pieces of the given color attacking the square, with sliders blocked by the given occupancy.
+    private long attackersTo(int target, long blockers, int attacker) {
+        // A pawn of the attacking color stands on a square our own pawn would attack from the target.
+        long pawns = pieceBitboards[bitboardIndex(attacker, PieceType.PAWN.ordinal())];
+        long knights = pieceBitboards[bitboardIndex(attacker, PieceType.KNIGHT.ordinal())];
+        long king = pieceBitboards[bitboardIndex(attacker, PieceType.KING.ordinal())];
+        long queens = pieceBitboards[bitboardIndex(attacker, PieceType.QUEEN.ordinal())];
+        long diagonalSliders = pieceBitboards[bitboardIndex(attacker, PieceType.BISHOP.ordinal())] | queens;
+        long straightSliders = pieceBitboards[bitboardIndex(attacker, PieceType.ROOK.ordinal())] | queens;
+
+        return (Bitboards.pawnAttacks(1 - attacker, target) & pawns)
+                | (Bitboards.knightAttacks(target) & knights)
+                | (Bitboards.kingAttacks(target) & king)
+                | (Bitboards.bishopAttacks(target, blockers) & diagonalSliders)
+                | (Bitboards.rookAttacks(target, blockers) & straightSliders);
+    }
+
+    private boolean hasAnyLegalMoves() {
+        return generateLegalMoves(scratchMoves) > 0;
+    }
+
+    private boolean isLegalMove(int startX, int startY, int endX, int endY) {
+        int from = Bitboards.square(startX, startY);
+        int to = Bitboards.square(endX, endY);
+        int count = generateLegalMoves(scratchMoves);
+        for (int i = 0; i < count; i++) {
+            if (Move.from(scratchMoves[i]) == from && Move.to(scratchMoves[i]) == to) {
+                return true;
             }
         }
         return false;
     }
 
-    private boolean canPieceAttackSquare(int startX, int startY, int targetX, int targetY, Piece piece) {
-        Square start = getBox(startX, startY);
-        Square target = getBox(targetX, targetY);
-        int xDiff = targetX - startX;
-        int yDiff = targetY - startY;
+    // Fills the caller-owned buffer (at least MAX_MOVES long) with the legal moves of the side to move,
+    // packed as described in Move, and returns how many were written.
+    // Legality comes from one attack-map pass: the checkers give a mask of squares that resolve the
+    // check, and pinned pieces may only move along their pin ray. Only king moves (tested against
+    // enemy attacks with the king lifted off the board) and en passant (made and unmade) need extra work.
+    public int generateLegalMoves(int[] buffer) {
+        int us = currentTurn.ordinal();
+        int them = 1 - us;
+        int kingSquare = kingSquares[us];
+        long own = colorOccupancy[us];
+        long enemyKing = pieceBitboards[bitboardIndex(them, PieceType.KING.ordinal())];
+        long enemy = colorOccupancy[them] & ~enemyKing;
+        // Kings are never captured, matching isPseudoLegalMove.
+        long targets = ~own & ~enemyKing;
+        int count = 0;
+
+        if (kingSquare < 0) {
+            return 0;
+        }
 
-        if (piece instanceof Pawn) {
-            int direction = piece.getColor() == PieceColor.WHITE ? -1 : 1;
-            return xDiff == direction && Math.abs(yDiff) == 1;
+        long checkers = attackersTo(kingSquare, occupancy, them);
+        count = generateKingMoves(buffer, count, kingSquare, targets, enemy, them);
+        if (Long.bitCount(checkers) > 1) {
+            return count;
         }
 
-        if (piece instanceof Knight) {
-            return Math.abs(xDiff) * Math.abs(yDiff) == 2;
+        long checkMask = -1L;
+        if (checkers != 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Bitboards.between(kingSquare, checker);
         }
+        long pinned = computePins(kingSquare, us, them);
+        targets &= checkMask;
+
+        count = generatePawnMoves(buffer, count, us, enemy, checkMask, pinned);
 
-        if (piece instanceof Bishop) {
-            return isDiagonalAttackWithClearPath(start, target);
+        long knights = pieceBitboards[bitboardIndex(us, PieceType.KNIGHT.ordinal())] & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addMoves(buffer, count, from, Bitboards.knightAttacks(from) & targets, enemy);
         }
 
-        if (piece instanceof Rook) {
-            return isStraightAttackWithClearPath(start, target);
+        long queens = pieceBitboards[bitboardIndex(us, PieceType.QUEEN.ordinal())];
+        long bishops = pieceBitboards[bitboardIndex(us, PieceType.BISHOP.ordinal())] | queens;
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            long destinations = Bitboards.bishopAttacks(from, occupancy) & targets & allowedRay(from, pinned);
+            count = addMoves(buffer, count, from, destinations, enemy);
         }
 
-        if (piece instanceof Queen) {
-            return isStraightAttackWithClearPath(start, target)
-                    || isDiagonalAttackWithClearPath(start, target);
+        long rooks = pieceBitboards[bitboardIndex(us, PieceType.ROOK.ordinal())] | queens;
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            long destinations = Bitboards.rookAttacks(from, occupancy) & targets & allowedRay(from, pinned);
+            count = addMoves(buffer, count, from, destinations, enemy);
         }
 
-        if (piece instanceof King) {
-            return Math.abs(xDiff) <= 1 && Math.abs(yDiff) <= 1 && !(xDiff == 0 && yDiff == 0);
+        if (checkers == 0) {
+            count = generateCastlingMoves(buffer, count, kingSquare);
         }
+        return count;
+    }
 
-        return false;
+    // Marks our pieces that are the only blocker between our king and an enemy slider,
+    // and records the ray each one may still move along.
+    private long computePins(int kingSquare, int us, int them) {
+        long queens = pieceBitboards[bitboardIndex(them, PieceType.QUEEN.ordinal())];
+        long straightSliders = pieceBitboards[bitboardIndex(them, PieceType.ROOK.ordinal())] | queens;
+        long diagonalSliders = pieceBitboards[bitboardIndex(them, PieceType.BISHOP.ordinal())] | queens;
+        long enemyPieces = colorOccupancy[them];
+
+        // Sliders that would attack the king if none of our pieces were in the way.
+        long snipers = (Bitboards.rookAttacks(kingSquare, enemyPieces) & straightSliders)
+                | (Bitboards.bishopAttacks(kingSquare, enemyPieces) & diagonalSliders);
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long between = Bitboards.between(kingSquare, sniper);
+            long blockers = between & occupancy;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & colorOccupancy[us]) != 0) {
+                pinned |= blockers;
+                pinRays[Long.numberOfTrailingZeros(blockers)] = between | Bitboards.bit(sniper);
+            }
+        }
+        return pinned;
     }
 
-    private boolean isStraightAttackWithClearPath(Square start, Square target) {
-        if (start.getX() != target.getX() && start.getY() != target.getY()) {
-            return false;
+    private long allowedRay(int from, long pinned) {
+        return (pinned & Bitboards.bit(from)) != 0 ? pinRays[from] : -1L;
+    }
+
+    private int generateKingMoves(int[] buffer, int count, int kingSquare, long targets, long enemy, int them) {
+        long withoutKing = occupancy & ~Bitboards.bit(kingSquare);
+        long destinations = Bitboards.kingAttacks(kingSquare) & targets;
+        while (destinations != 0) {
+            int to = Long.numberOfTrailingZeros(destinations);
+            destinations &= destinations - 1;
+            if (attackersTo(to, withoutKing, them) == 0) {
+                int flags = (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+                buffer[count++] = Move.encode(kingSquare, to, 0, flags);
+            }
         }
-        return isPathClearStraight(start, target);
+        return count;
     }
 
-    private boolean isDiagonalAttackWithClearPath(Square start, Square target) {
-        int xDiff = Math.abs(target.getX() - start.getX());
-        int yDiff = Math.abs(target.getY() - start.getY());
-        if (xDiff != yDiff || xDiff == 0) {
-            return false;
+    private int addMoves(int[] buffer, int count, int from, long destinations, long enemy) {
+        while (destinations != 0) {
+            int to = Long.numberOfTrailingZeros(destinations);
+            destinations &= destinations - 1;
+            int flags = (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+            buffer[count++] = Move.encode(from, to, 0, flags);
         }
-        return isPathClearDiagonal(start, target);
+        return count;
     }
 
-    private boolean hasAnyLegalMoves(PieceColor color) {
-        for (int startX = 0; startX < 8; startX++) {
-            for (int startY = 0; startY < 8; startY++) {
-                Piece piece = getBox(startX, startY).getPiece();
-                if (piece == null || piece.getColor() != color) {
-                    continue;
+    private int generatePawnMoves(int[] buffer, int count, int us, long enemy, long checkMask, long pinned) {
+        boolean white = us == Bitboards.WHITE;
+        int forward = white ? -8 : 8;
+        int startRow = white ? 6 : 1;
+        int promotionRow = white ? 0 : 7;
+
+        long pawns = pieceBitboards[bitboardIndex(us, PieceType.PAWN.ordinal())];
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            int fromX = Bitboards.squareX(from);
+            long allowed = checkMask & allowedRay(from, pinned);
+
+            int oneStep = from + forward;
+            if ((occupancy & Bitboards.bit(oneStep)) == 0) {
+                if ((allowed & Bitboards.bit(oneStep)) != 0) {
+                    count = addPawnMove(buffer, count, from, oneStep, 0, promotionRow);
+                }
+                int twoSteps = oneStep + forward;
+                if (fromX == startRow && (occupancy & Bitboards.bit(twoSteps)) == 0
+                        && (allowed & Bitboards.bit(twoSteps)) != 0) {
+                    buffer[count++] = Move.encode(from, twoSteps, 0, Move.DOUBLE_PAWN_PUSH);
                 }
+            }
+
+            long captures = Bitboards.pawnAttacks(us, from) & enemy & allowed;
+            while (captures != 0) {
+                int to = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                count = addPawnMove(buffer, count, from, to, Move.CAPTURE, promotionRow);
+            }
 
-                for (int endX = 0; endX < 8; endX++) {
-                    for (int endY = 0; endY < 8; endY++) {
-                        if (!isPseudoLegalMove(startX, startY, endX, endY, piece)) {
-                            continue;
-                        }
-
-                        Board simulation = deepCopy();
-                        simulation.applyMoveUnchecked(startX, startY, endX, endY);
-                        if (!simulation.isKingInCheck(color)) {
-                            return true;
-                        }
+            // En passant can expose the king along the row of both pawns, so it is verified directly.
+            if (enPassantPawnX == fromX && Math.abs(enPassantPawnY - Bitboards.squareY(from)) == 1) {
+                Piece adjacent = boxes[enPassantPawnX][enPassantPawnY].getPiece();
+                int to = Bitboards.square(fromX, enPassantPawnY) + forward;
+                if (adjacent instanceof Pawn && adjacent.getColor().ordinal() != us
+                        && (occupancy & Bitboards.bit(to)) == 0) {
+                    int move = Move.encode(from, to, 0, Move.CAPTURE | Move.EN_PASSANT);
+                    if (isLegalAfter(move)) {
+                        buffer[count++] = move;
                     }
                 }
             }
         }
-        return false;
+        return count;
+    }
+
+    private boolean isLegalAfter(int move) {
+        PieceColor mover = currentTurn;
+        makeMove(move);
+        boolean legal = !isKingInCheck(mover);
+        unmakeMove();
+        return legal;
+    }
+
+    private int addPawnMove(int[] buffer, int count, int from, int to, int flags, int promotionRow) {
+        if (Bitboards.squareX(to) != promotionRow) {
+            buffer[count++] = Move.encode(from, to, 0, flags);
+            return count;
+        }
+
+        buffer[count++] = Move.encode(from, to, PieceType.QUEEN.ordinal(), flags);
+        buffer[count++] = Move.encode(from, to, PieceType.ROOK.ordinal(), flags);
+        buffer[count++] = Move.encode(from, to, PieceType.BISHOP.ordinal(), flags);
+        buffer[count++] = Move.encode(from, to, PieceType.KNIGHT.ordinal(), flags);
+        return count;
+    }
+
+    private int generateCastlingMoves(int[] buffer, int count, int kingSquare) {
+        int rights = currentTurn == PieceColor.WHITE
+                ? castlingRights & (WHITE_KINGSIDE | WHITE_QUEENSIDE)
+                : castlingRights & (BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        if (rights == 0) {
+            return count;
+        }
+
+        int row = Bitboards.squareX(kingSquare);
+        int kingY = Bitboards.squareY(kingSquare);
+        Piece king = boxes[row][kingY].getPiece();
+        if (kingY + 2 < 8 && canCastle(row, kingY, kingY + 2, king)) {
+            buffer[count++] = Move.encode(kingSquare, kingSquare + 2, 0, Move.CASTLING);
+        }
+        if (kingY - 2 >= 0 && canCastle(row, kingY, kingY - 2, king)) {
+            buffer[count++] = Move.encode(kingSquare, kingSquare - 2, 0, Move.CASTLING);
+        }
+        return count;
     }
 
-    private Board deepCopy() {
+    // Independent copy of the position, e.g. for handing a board to another thread.
+    public Board deepCopy() {
         Board copy = new Board(false);
 
         for (int x = 0; x < 8; x++) {
@@ -570,6 +1458,10 @@ public class Board {
             }
         }
 
+        System.arraycopy(pieceBitboards, 0, copy.pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(colorOccupancy, 0, copy.colorOccupancy, 0, colorOccupancy.length);
+        copy.occupancy = occupancy;
+        System.arraycopy(kingSquares, 0, copy.kingSquares, 0, kingSquares.length);
         copy.currentTurn = currentTurn;
         copy.gameOver = gameOver;
         copy.winner = winner;
@@ -579,6 +1471,16 @@ public class Board {
         copy.pendingPromotionX = pendingPromotionX;
         copy.pendingPromotionY = pendingPromotionY;
         copy.pendingPromotionColor = pendingPromotionColor;
+        copy.castlingRights = castlingRights;
+        copy.halfmoveClock = halfmoveClock;
+        copy.keyHistory = keyHistory.clone();
+        copy.keyCount = keyCount;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.zobristKey = zobristKey;
+        copy.pawnKey = pawnKey;
+        copy.middlegameScore = middlegameScore;
+        copy.endgameScore = endgameScore;
+        copy.gamePhase = gamePhase;
 
         return copy;
     }
@@ -0,0 +1,124 @@
+package core;
+
+// Magic bitboard lookup tables for rook and bishop attacks.
+// (occupancy & mask) * magic >>> shift maps every relevant blocker set of a square to its own
+// table slot, so a slider attack query is one multiply, one shift and one array load.
+// The magic numbers are constants, so startup only fills the tables. They were found offline by trying
+// sparse random candidates (the AND of three random longs) until one sent every blocker subset of the
+// square's mask to a slot without a destructive collision.
+final class Magics {
+    private static final long[] ROOK_MAGICS = {
+            0x7080024000108620L, 0x0040200010004000L, 0x0100081020004500L, 0x3880048110000801L,
+            0x4200200200080410L, 0x2400900400082002L, 0x45000B000F860004L, 0x220004038040A116L,
+            0x010280002084400AL, 0x0026402004401000L, 0x0045002002110048L, 0x0043002300100009L,
+            0x004280801C002800L, 0x4001800401801200L, 0x1005000411000200L, 0x408100120040A100L,
+            0x0160808000401020L, 0x0020004008205000L, 0x0000430010200300L, 0x4001818008005000L,
+            0x1D04008008008004L, 0x6002080110204004L, 0x2009040001081002L, 0x8094020020804401L,
+            0x00C00049800080A7L, 0x80015000C0002000L, 0xC000220200108040L, 0x00A8018480100108L,
+            0x0818008080080401L, 0x0A00040080020080L, 0x1A01080400104A31L, 0x000200A200011044L,
+            0x4080006001400040L, 0x240080400C802000L, 0x880500104100200AL, 0x0C02002012004008L,
+            0x0000800800800401L, 0x0402002004040010L, 0x0A06888104001002L, 0x01A0A400A2000041L,
+            0x00C0008000428022L, 0x5048C0E010054000L, 0x0010012000848011L, 0x0004100209010020L,
+            0x8000040008008080L, 0x2C08020004008080L, 0x0800020841040010L, 0x0006004408820019L,
+            0x1010400030800180L, 0x0280882000400880L, 0x02810098A0004300L, 0x02E4914840220200L,
+            0xA094800802040080L, 0x00220010A8045200L, 0x8000810210080400L, 0x2004800100016280L,
+            0x0000201040800D01L, 0x00090010E0854001L, 0x0000090040200011L, 0x014B0008A4300121L,
+            0x1806002004100802L, 0x0883000400020801L, 0x00101CA228051004L, 0x0438088100402402L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0229120802002200L, 0x00C4210809010800L, 0x080808210322020CL, 0x0628204040010201L,
+            0x0006021148000000L, 0x00008804C0040120L, 0x0040411048A0AC00L, 0x0000218218904002L,
+            0x4000091001020402L, 0xC004040410A42100L, 0x2224040800810608L, 0x0224044400800202L,
+            0x0080040420201000L, 0x2800010402410300L, 0x0000284814100882L, 0x0811010090900800L,
+            0x0840402424880602L, 0x00A00C4214142081L, 0x4990005E02801504L, 0x008C010802482841L,
+            0x1000821400A04038L, 0x01420054C9042000L, 0x2080405201700800L, 0x082200804A00C400L,
+            0x28040480C0100489L, 0x00041080841000C1L, 0x0224120174002400L, 0x0060124008004040L,
+            0x0011040082002101L, 0x080202802808900BL, 0x0004008101084110L, 0x4820408021008800L,
+            0x300608A000426200L, 0x30080808000401A0L, 0x050361880C300020L, 0x0082080800020A00L,
+            0x0040008208110100L, 0x0008882200644102L, 0x031004004800820EL, 0x0841441024110100L,
+            0x0089211820404004L, 0x0002013003110800L, 0x80D3A01050001800L, 0x0C00802014410801L,
+            0x800102020C000204L, 0x0004080048122100L, 0x00A0420200500200L, 0x0322080200360080L,
+            0x0816020282401008L, 0x0000840412428040L, 0x0108408404291024L, 0x0420080021981001L,
+            0x8000102020825004L, 0x110244A038024000L, 0x02502009040A8810L, 0x0032820404009000L,
+            0x0A88210100A0A004L, 0x1920060082211024L, 0x0010010100411000L, 0x4003084812104420L,
+            0x20800012D0020220L, 0x0600022004109086L, 0x2020080208082120L, 0x052444500C002080L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        ROOK_TABLE = build(true, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_TABLE = build(false, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private Magics() {
+    }
+
+    static long rookAttacks(int square, long occupancy) {
+        int index = (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    static long bishopAttacks(int square, long occupancy) {
+        int index = (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    private static long[] build(boolean rook, long[] masks, long[] magics, int[] shifts, int[] offsets) {
+        int totalSize = 0;
+        for (int square = 0; square < 64; square++) {
+            masks[square] = relevantOccupancyMask(rook, square);
+            int bits = Long.bitCount(masks[square]);
+            shifts[square] = 64 - bits;
+            offsets[square] = totalSize;
+            totalSize += 1 << bits;
+        }
+
+        long[] table = new long[totalSize];
+        for (int square = 0; square < 64; square++) {
+            long mask = masks[square];
+            long subset = 0;
+            // Walk every subset of the mask (Carry-Rippler) and store its attack set.
+            do {
+                int index = (int) ((subset * magics[square]) >>> shifts[square]);
+                table[offsets[square] + index] = slidingAttacks(rook, square, subset);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    private static long slidingAttacks(boolean rook, int square, long occupancy) {
+        return rook ? Bitboards.rookAttacksByRays(square, occupancy) : Bitboards.bishopAttacksByRays(square, occupancy);
+    }
+
+    // Blockers on the board edge never change the attack set, so they are left out of the mask.
+    private static long relevantOccupancyMask(boolean rook, int square) {
+        int x = Bitboards.squareX(square);
+        int y = Bitboards.squareY(square);
+        int[][] steps = rook
+                ? new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}
+                : new int[][]{{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+        long mask = 0;
+        for (int[] step : steps) {
+            int rayX = x + step[0];
+            int rayY = y + step[1];
+            while (rayX + step[0] >= 0 && rayX + step[0] < 8 && rayY + step[1] >= 0 && rayY + step[1] < 8) {
+                mask |= Bitboards.bit(Bitboards.square(rayX, rayY));
+                rayX += step[0];
+                rayY += step[1];
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,95 @@
+package core;
+
+import pieces.PieceType;
+
+// Packed int move encoding used by the move generator.
+// bits 0-5: start square, bits 6-11: end square (square index x * 8 + y),
+// bits 12-14: promotion PieceType ordinal (0 when the move is not a promotion),
+// bits 15-18: flags.
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PAWN_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLING = 1 << 18;
+
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int promotionType, int flags) {
+        return from | (to << 6) | (promotionType << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int startX(int move) {
+        return Bitboards.squareX(from(move));
+    }
+
+    public static int startY(int move) {
+        return Bitboards.squareY(from(move));
+    }
+
+    public static int endX(int move) {
+        return Bitboards.squareX(to(move));
+    }
+
+    public static int endY(int move) {
+        return Bitboards.squareY(to(move));
+    }
+
+    public static int promotionType(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static PieceType promotion(int move) {
+        int type = promotionType(move);
+        return type == 0 ? null : TYPES[type];
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotionType(move) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (move & CASTLING) != 0;
+    }
+
+    // Coordinate notation such as "e2e4" or "e7e8q". Row 7 is rank 1 and column 0 is file a.
+    public static String toUci(int move) {
+        StringBuilder builder = new StringBuilder(5);
+        appendSquare(builder, from(move));
+        appendSquare(builder, to(move));
+        switch (promotionType(move)) {
+            case 1 -> builder.append('n');
+            case 2 -> builder.append('b');
+            case 3 -> builder.append('r');
+            case 4 -> builder.append('q');
+            default -> {
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendSquare(StringBuilder builder, int square) {
+        builder.append((char) ('a' + Bitboards.squareY(square)));
+        builder.append((char) ('8' - Bitboards.squareX(square)));
+    }
+}
@@ -0,0 +1,32 @@
+package core;
+
+import pieces.Piece;
+import pieces.PieceColor;
+
+// Everything makeMove overwrites, so unmakeMove can restore the position in place.
+final class MoveUndo {
+    int startX;
+    int startY;
+    int endX;
+    int endY;
+
+    Piece movedPiece;
+    boolean movedPieceHadMoved;
+
+    Piece capturedPiece;
+    int capturedX;
+    int capturedY;
+
+    boolean castling;
+
+    int enPassantPawnX;
+    int enPassantPawnY;
+    int castlingRights;
+    long zobristKey;
+    int halfmoveClock;
+    int fullmoveNumber;
+
+    int pendingPromotionX;
+    int pendingPromotionY;
+    PieceColor pendingPromotionColor;
+}
@@ -0,0 +1,57 @@
+package core;
+
+import java.util.SplittableRandom;
+
+// Random keys for the incrementally maintained 64-bit position hash.
+// The seed is fixed so keys (and anything persisted with them) are stable across runs.
+public final class Zobrist {
+    private static final long SEED = 0x2D358DCCAA6C78A5L;
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = random.nextLong();
+        }
+
+        long[] castlingRightKeys = new long[4];
+        for (int i = 0; i < castlingRightKeys.length; i++) {
+            castlingRightKeys[i] = random.nextLong();
+        }
+        for (int rights = 0; rights < CASTLING.length; rights++) {
+            for (int i = 0; i < castlingRightKeys.length; i++) {
+                if ((rights & (1 << i)) != 0) {
+                    CASTLING[rights] ^= castlingRightKeys[i];
+                }
+            }
+        }
+
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int color, int type, int square) {
+        return PIECE_SQUARE[(color * 6 + type) * 64 + square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
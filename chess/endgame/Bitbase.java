@@ -0,0 +1,96 @@
+package endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Win bits of one endgame, one bit per position and side to move: set when the strong side wins.
+// The lone king can never win, so a clear bit means a draw (or an unreachable position).
+// Backed by heap arrays right after generation and by a read-only file mapping when loaded; reads
+// never move buffer positions, so probing is thread-safe.
+//
+// File layout (big-endian): magic "BITBASE1", endgame ordinal (int), words per side (int),
+// strong-side-to-move words, weak-side-to-move words.
+final class Bitbase {
+    private static final long MAGIC = 0x4249544241534531L;
+    private static final int HEADER_BYTES = 16;
+
+    private final Endgame endgame;
+    private final LongBuffer strongToMove;
+    private final LongBuffer weakToMove;
+
+    Bitbase(Endgame endgame, LongBuffer strongToMove, LongBuffer weakToMove) {
+        this.endgame = endgame;
+        this.strongToMove = strongToMove;
+        this.weakToMove = weakToMove;
+    }
+
+    static int wordsPerSide(Endgame endgame) {
+        return (endgame.getPositionCount() + 63) >>> 6;
+    }
+
+    Endgame getEndgame() {
+        return endgame;
+    }
+
+    boolean isWin(int index, boolean strongSideToMove) {
+        LongBuffer bits = strongSideToMove ? strongToMove : weakToMove;
+        return (bits.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    long countWins(boolean strongSideToMove) {
+        LongBuffer bits = strongSideToMove ? strongToMove : weakToMove;
+        long wins = 0;
+        for (int i = 0; i < bits.limit(); i++) {
+            wins += Long.bitCount(bits.get(i));
+        }
+        return wins;
+    }
+
+    static Bitbase map(Path path, Endgame endgame) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int words = wordsPerSide(endgame);
+            long expectedSize = HEADER_BYTES + 16L * words;
+            if (channel.size() != expectedSize) {
+                throw new IOException(path + ": expected " + expectedSize + " bytes, found " + channel.size());
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedSize);
+            if (mapped.getLong(0) != MAGIC || mapped.getInt(8) != endgame.ordinal() || mapped.getInt(12) != words) {
+                throw new IOException(path + ": not a " + endgame + " bitbase");
+            }
+            LongBuffer strong = mapped.slice(HEADER_BYTES, words * 8).asLongBuffer();
+            LongBuffer weak = mapped.slice(HEADER_BYTES + words * 8, words * 8).asLongBuffer();
+            return new Bitbase(endgame, strong, weak);
+        }
+    }
+
+    void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putLong(MAGIC).putInt(endgame.ordinal()).putInt(strongToMove.limit());
+            for (LongBuffer bits : new LongBuffer[]{strongToMove, weakToMove}) {
+                for (int i = 0; i < bits.limit(); i++) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer);
+                    }
+                    buffer.putLong(bits.get(i));
+                }
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,321 @@
+package endgame;
+
+import core.Bitboards;
+import pieces.PieceType;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Builds win/draw bitbases by retrograde analysis: starting from the checkmates, wins are
+// propagated backwards until nothing changes. Each round is one sweep per side to move over every
+// unsettled position. A strong-side position is won if some move reaches a won position. A
+// weak-side position is won if every move does (or it is checkmate). Sweeps run on a ForkJoinPool
+// over disjoint ranges of 64-position words, and a sweep only writes the bits of the side it
+// evaluates, so workers never race on a word.
+public final class BitbaseGenerator {
+    private static final int WORDS_PER_TASK = 256;
+
+    // Per-position sweep outcomes.
+    private static final int UNRESOLVED = 0;
+    private static final int WIN = 1;
+    private static final int DRAW = 2;
+
+    private final Endgame endgame;
+    private final int positions;
+    private final int words;
+    // Win bits and "settled" bits (won, drawn or invalid) per side to move.
+    private final long[] strongWins;
+    private final long[] weakWins;
+    private final long[] strongSettled;
+    private final long[] weakSettled;
+    // KPK promotes into these.
+    private final Bitbase queenTable;
+    private final Bitbase rookTable;
+
+    private BitbaseGenerator(Endgame endgame, Bitbase queenTable, Bitbase rookTable) {
+        this.endgame = endgame;
+        this.positions = endgame.getPositionCount();
+        this.words = Bitbase.wordsPerSide(endgame);
+        this.strongWins = new long[words];
+        this.weakWins = new long[words];
+        this.strongSettled = new long[words];
+        this.weakSettled = new long[words];
+        this.queenTable = queenTable;
+        this.rookTable = rookTable;
+
+        // Padding bits past the last position never need evaluating.
+        int used = positions & 63;
+        if (used != 0) {
+            strongSettled[words - 1] = -1L << used;
+            weakSettled[words - 1] = -1L << used;
+        }
+    }
+
+    // Generates every endgame in dependency order, writes <NAME>.bb files into the directory and
+    // returns the tables ready for probing.
+    public static Bitbases generateAll(Path directory, ForkJoinPool pool, PrintStream log) throws IOException {
+        Files.createDirectories(directory);
+        Bitbase[] tables = new Bitbase[Endgame.values().length];
+        for (Endgame endgame : Endgame.values()) {
+            long start = System.nanoTime();
+            Bitbase table = generate(endgame, pool, tables[Endgame.KQK.ordinal()], tables[Endgame.KRK.ordinal()]);
+            table.write(directory.resolve(endgame.getFileName()));
+            tables[endgame.ordinal()] = table;
+            if (log != null) {
+                log.printf("%s: %d positions per side, %d/%d wins with strong/weak side to move, %.2f s%n",
+                        endgame, endgame.getPositionCount(), table.countWins(true), table.countWins(false),
+                        (System.nanoTime() - start) / 1_000_000_000.0);
+            }
+        }
+        return new Bitbases(tables);
+    }
+
+    static Bitbase generate(Endgame endgame, ForkJoinPool pool, Bitbase queenTable, Bitbase rookTable) {
+        if (endgame.hasPawn() && (queenTable == null || rookTable == null)) {
+            throw new IllegalStateException("KPK needs the KQK and KRK bitbases first");
+        }
+        BitbaseGenerator generator = new BitbaseGenerator(endgame, queenTable, rookTable);
+        boolean changed = true;
+        while (changed) {
+            long weakChanges = pool.invoke(generator.new Sweep(0, generator.words, false));
+            long strongChanges = pool.invoke(generator.new Sweep(0, generator.words, true));
+            changed = weakChanges + strongChanges > 0;
+        }
+        return new Bitbase(endgame, LongBuffer.wrap(generator.strongWins), LongBuffer.wrap(generator.weakWins));
+    }
+
+    // Fork/join tasks are never serialized.
+    @SuppressWarnings("serial")
+    private final class Sweep extends RecursiveTask<Long> {
+        private final int fromWord;
+        private final int toWord;
+        private final boolean strongToMove;
+
+        Sweep(int fromWord, int toWord, boolean strongToMove) {
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+            this.strongToMove = strongToMove;
+        }
+
+        @Override
+        protected Long compute() {
+            if (toWord - fromWord <= WORDS_PER_TASK) {
+                return sweep(fromWord, toWord, strongToMove);
+            }
+            int middle = (fromWord + toWord) >>> 1;
+            Sweep left = new Sweep(fromWord, middle, strongToMove);
+            left.fork();
+            long right = new Sweep(middle, toWord, strongToMove).compute();
+            return left.join() + right;
+        }
+    }
+
+    // Number of positions that changed state (settled as won or drawn).
+    private long sweep(int fromWord, int toWord, boolean strongToMove) {
+        long[] wins = strongToMove ? strongWins : weakWins;
+        long[] settled = strongToMove ? strongSettled : weakSettled;
+        int[] squares = new int[BitbaseIndex.FIRST_PIECE + 2];
+        long changes = 0;
+
+        for (int word = fromWord; word < toWord; word++) {
+            long open = ~settled[word];
+            long newWins = 0;
+            long newDraws = 0;
+            while (open != 0) {
+                int bit = Long.numberOfTrailingZeros(open);
+                open &= open - 1;
+                BitbaseIndex.decode(endgame, word * 64 + bit, squares);
+                int outcome = strongToMove ? evaluateStrongToMove(squares) : evaluateWeakToMove(squares);
+                if (outcome == WIN) {
+                    newWins |= 1L << bit;
+                } else if (outcome == DRAW) {
+                    newDraws |= 1L << bit;
+                }
+            }
+            wins[word] |= newWins;
+            settled[word] |= newWins | newDraws;
+            changes += Long.bitCount(newWins | newDraws);
+        }
+        return changes;
+    }
+
+    private int evaluateStrongToMove(int[] squares) {
+        int strongKing = squares[BitbaseIndex.STRONG_KING];
+        int weakKing = squares[BitbaseIndex.WEAK_KING];
+        if (!isValidPlacement(squares)) {
+            return DRAW;
+        }
+        long occupancy = occupancy(squares);
+        // The weak king cannot be in check when the strong side is to move.
+        if ((strongAttacks(squares, occupancy) & Bitboards.bit(weakKing)) != 0) {
+            return DRAW;
+        }
+
+        boolean hasMove = false;
+        long kingTargets = Bitboards.kingAttacks(strongKing) & ~occupancy & ~Bitboards.kingAttacks(weakKing);
+        hasMove |= kingTargets != 0;
+        while (kingTargets != 0) {
+            int target = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            squares[BitbaseIndex.STRONG_KING] = target;
+            boolean won = isWeakToMoveWin(squares);
+            squares[BitbaseIndex.STRONG_KING] = strongKing;
+            if (won) {
+                return WIN;
+            }
+        }
+
+        for (int piece = 0; piece < endgame.getPieceCount(); piece++) {
+            int slot = BitbaseIndex.FIRST_PIECE + piece;
+            int from = squares[slot];
+            PieceType type = endgame.getPiece(piece);
+
+            if (type == PieceType.PAWN) {
+                int push = from - 8;
+                if ((occupancy & Bitboards.bit(push)) != 0) {
+                    continue;
+                }
+                hasMove = true;
+                if (Bitboards.squareX(push) == 0) {
+                    if (isPromotionWin(strongKing, weakKing, push)) {
+                        return WIN;
+                    }
+                    continue;
+                }
+                if (isPawnMoveWin(squares, slot, push)) {
+                    return WIN;
+                }
+                int doublePush = push - 8;
+                if (Bitboards.squareX(from) == 6 && (occupancy & Bitboards.bit(doublePush)) == 0
+                        && isPawnMoveWin(squares, slot, doublePush)) {
+                    return WIN;
+                }
+                continue;
+            }
+
+            long targets = pieceAttacks(type, from, occupancy) & ~occupancy;
+            hasMove |= targets != 0;
+            while (targets != 0) {
+                int target = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                squares[slot] = target;
+                boolean won = isWeakToMoveWin(squares);
+                squares[slot] = from;
+                if (won) {
+                    return WIN;
+                }
+            }
+        }
+        return hasMove ? UNRESOLVED : DRAW;
+    }
+
+    private int evaluateWeakToMove(int[] squares) {
+        int weakKing = squares[BitbaseIndex.WEAK_KING];
+        if (!isValidPlacement(squares)) {
+            return DRAW;
+        }
+        long occupancy = occupancy(squares);
+        // Sliders see through the weak king's current square, so it cannot step back along a check.
+        long attacked = strongAttacks(squares, occupancy & ~Bitboards.bit(weakKing));
+        boolean inCheck = (attacked & Bitboards.bit(weakKing)) != 0;
+
+        long targets = Bitboards.kingAttacks(weakKing) & ~attacked;
+        if (targets == 0) {
+            return inCheck ? WIN : DRAW;
+        }
+        // Taking an undefended piece leaves too little material to win.
+        if ((targets & occupancy) != 0) {
+            return DRAW;
+        }
+
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            squares[BitbaseIndex.WEAK_KING] = target;
+            boolean won = isStrongToMoveWin(squares);
+            squares[BitbaseIndex.WEAK_KING] = weakKing;
+            if (!won) {
+                return UNRESOLVED;
+            }
+        }
+        return WIN;
+    }
+
+    private boolean isPawnMoveWin(int[] squares, int slot, int target) {
+        int from = squares[slot];
+        squares[slot] = target;
+        boolean won = isWeakToMoveWin(squares);
+        squares[slot] = from;
+        return won;
+    }
+
+    // Queen and rook promotions are looked up in their own bitbases; minor pieces cannot win.
+    private boolean isPromotionWin(int strongKing, int weakKing, int square) {
+        return queenTable.isWin(BitbaseIndex.index(Endgame.KQK, strongKing, weakKing, square, -1), false)
+                || rookTable.isWin(BitbaseIndex.index(Endgame.KRK, strongKing, weakKing, square, -1), false);
+    }
+
+    private boolean isWeakToMoveWin(int[] squares) {
+        return isWin(weakWins, squares);
+    }
+
+    private boolean isStrongToMoveWin(int[] squares) {
+        return isWin(strongWins, squares);
+    }
+
+    private boolean isWin(long[] wins, int[] squares) {
+        int index = BitbaseIndex.index(endgame, squares[BitbaseIndex.STRONG_KING], squares[BitbaseIndex.WEAK_KING],
+                squares[BitbaseIndex.FIRST_PIECE], squares[BitbaseIndex.FIRST_PIECE + 1]);
+        return (wins[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private boolean isValidPlacement(int[] squares) {
+        int strongKing = squares[BitbaseIndex.STRONG_KING];
+        int weakKing = squares[BitbaseIndex.WEAK_KING];
+        if ((Bitboards.kingAttacks(strongKing) & Bitboards.bit(weakKing)) != 0 || strongKing == weakKing) {
+            return false;
+        }
+        long seen = Bitboards.bit(strongKing) | Bitboards.bit(weakKing);
+        for (int piece = 0; piece < endgame.getPieceCount(); piece++) {
+            long bit = Bitboards.bit(squares[BitbaseIndex.FIRST_PIECE + piece]);
+            if ((seen & bit) != 0) {
+                return false;
+            }
+            seen |= bit;
+        }
+        return true;
+    }
+
+    private long occupancy(int[] squares) {
+        long occupancy = 0L;
+        for (int i = 0; i < BitbaseIndex.FIRST_PIECE + endgame.getPieceCount(); i++) {
+            occupancy |= Bitboards.bit(squares[i]);
+        }
+        return occupancy;
+    }
+
+    // Squares attacked or defended by the strong side.
+    private long strongAttacks(int[] squares, long occupancy) {
+        long attacks = Bitboards.kingAttacks(squares[BitbaseIndex.STRONG_KING]);
+        for (int piece = 0; piece < endgame.getPieceCount(); piece++) {
+            attacks |= pieceAttacks(endgame.getPiece(piece), squares[BitbaseIndex.FIRST_PIECE + piece], occupancy);
+        }
+        return attacks;
+    }
+
+    private static long pieceAttacks(PieceType type, int square, long occupancy) {
+        return switch (type) {
+            case PAWN -> Bitboards.pawnAttacks(Bitboards.WHITE, square);
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupancy);
+            case ROOK -> Bitboards.rookAttacks(square, occupancy);
+            case QUEEN -> Bitboards.queenAttacks(square, occupancy);
+            case KING -> Bitboards.kingAttacks(square);
+        };
+    }
+}
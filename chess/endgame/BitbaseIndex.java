@@ -0,0 +1,104 @@
+package endgame;
+
+import core.Bitboards;
+
+import java.util.Arrays;
+
+// Maps positions to bitbase indexes. Squares are board square indexes (x * 8 + y) seen from the
+// strong side, which always plays "up" like white; callers flip x when the strong side is black.
+// Pawnless endgames use the 8-fold board symmetry to keep the strong king in the a8-a5-d5 triangle;
+// KPK only mirrors files so the pawn stays on files a-d.
+final class BitbaseIndex {
+    static final int STRONG_KING = 0;
+    static final int WEAK_KING = 1;
+    static final int FIRST_PIECE = 2;
+
+    private static final int TRIANGLE_SIZE = 10;
+    private static final int PAWN_SLOTS = 24;
+    private static final int[] TRIANGLE_SQUARES = new int[TRIANGLE_SIZE];
+    private static final int[] TRIANGLE_INDEX = new int[64];
+
+    static {
+        Arrays.fill(TRIANGLE_INDEX, -1);
+        int next = 0;
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y <= x; y++) {
+                TRIANGLE_SQUARES[next] = Bitboards.square(x, y);
+                TRIANGLE_INDEX[Bitboards.square(x, y)] = next++;
+            }
+        }
+    }
+
+    private BitbaseIndex() {
+    }
+
+    static int size(Endgame endgame) {
+        if (endgame.hasPawn()) {
+            return PAWN_SLOTS * 64 * 64;
+        }
+        int size = TRIANGLE_SIZE * 64;
+        for (int i = 0; i < endgame.getPieceCount(); i++) {
+            size *= 64;
+        }
+        return size;
+    }
+
+    // Index of the position with the strong king, weak king and pieces on the given squares
+    // (pieces in Endgame.getPieces() order; unused trailing entries are ignored).
+    static int index(Endgame endgame, int strongKing, int weakKing, int firstPiece, int secondPiece) {
+        if (endgame.hasPawn()) {
+            if (Bitboards.squareY(firstPiece) > 3) {
+                strongKing ^= 7;
+                weakKing ^= 7;
+                firstPiece ^= 7;
+            }
+            int pawnSlot = (Bitboards.squareX(firstPiece) - 1) * 4 + Bitboards.squareY(firstPiece);
+            return (pawnSlot * 64 + strongKing) * 64 + weakKing;
+        }
+
+        boolean twoPieces = endgame.getPieceCount() == 2;
+        if (Bitboards.squareY(strongKing) > 3) {
+            strongKing ^= 7;
+            weakKing ^= 7;
+            firstPiece ^= 7;
+            secondPiece ^= 7;
+        }
+        if (Bitboards.squareX(strongKing) > 3) {
+            strongKing ^= 56;
+            weakKing ^= 56;
+            firstPiece ^= 56;
+            secondPiece ^= 56;
+        }
+        if (Bitboards.squareY(strongKing) > Bitboards.squareX(strongKing)) {
+            strongKing = transpose(strongKing);
+            weakKing = transpose(weakKing);
+            firstPiece = transpose(firstPiece);
+            secondPiece = transpose(secondPiece);
+        }
+
+        int index = (TRIANGLE_INDEX[strongKing] * 64 + weakKing) * 64 + firstPiece;
+        return twoPieces ? index * 64 + secondPiece : index;
+    }
+
+    // Inverse of index(): fills squares[STRONG_KING], squares[WEAK_KING] and the piece squares.
+    static void decode(Endgame endgame, int index, int[] squares) {
+        if (endgame.hasPawn()) {
+            squares[WEAK_KING] = index & 63;
+            squares[STRONG_KING] = (index >>> 6) & 63;
+            int pawnSlot = index >>> 12;
+            squares[FIRST_PIECE] = Bitboards.square(pawnSlot / 4 + 1, pawnSlot % 4);
+            return;
+        }
+
+        for (int i = endgame.getPieceCount() - 1; i >= 0; i--) {
+            squares[FIRST_PIECE + i] = index & 63;
+            index >>>= 6;
+        }
+        squares[WEAK_KING] = index & 63;
+        squares[STRONG_KING] = TRIANGLE_SQUARES[index >>> 6];
+    }
+
+    private static int transpose(int square) {
+        return ((square & 7) << 3) | (square >>> 3);
+    }
+}
@@ -0,0 +1,110 @@
+package endgame;
+
+import core.Bitboards;
+import core.Board;
+import pieces.PieceColor;
+import pieces.PieceType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Exact win/draw/loss results for KQK, KRK, KPK and KBNK, probed straight from a Board.
+// Tables are memory-mapped from the <NAME>.bb files written by BitbaseGenerator; missing files
+// simply leave that endgame unprobed. Safe to share between search threads.
+public final class Bitbases {
+    // Probe results from the side to move's point of view.
+    public static final int LOSS = -1;
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+    public static final int NOT_FOUND = 2;
+
+    private final Bitbase[] tables;
+
+    Bitbases(Bitbase[] tables) {
+        this.tables = tables;
+    }
+
+    public static Bitbases open(Path directory) throws IOException {
+        Bitbase[] tables = new Bitbase[Endgame.values().length];
+        for (Endgame endgame : Endgame.values()) {
+            Path file = directory.resolve(endgame.getFileName());
+            if (Files.exists(file)) {
+                tables[endgame.ordinal()] = Bitbase.map(file, endgame);
+            }
+        }
+        return new Bitbases(tables);
+    }
+
+    public boolean has(Endgame endgame) {
+        return tables[endgame.ordinal()] != null;
+    }
+
+    public int probe(Board board) {
+        long occupancy = board.getOccupancy();
+        int pieceCount = Long.bitCount(occupancy);
+        // Tables ignore castling, so positions that still have the right are left to the search.
+        if (pieceCount < 3 || pieceCount > 4 || board.getCastlingRights() != 0) {
+            return NOT_FOUND;
+        }
+
+        PieceColor strong = Long.bitCount(board.getOccupancy(PieceColor.WHITE)) > 1 ? PieceColor.WHITE : PieceColor.BLACK;
+        PieceColor weak = strong == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        if (Long.bitCount(board.getOccupancy(weak)) != 1) {
+            return NOT_FOUND;
+        }
+
+        Endgame endgame;
+        int firstPiece;
+        int secondPiece = -1;
+        if (pieceCount == 3) {
+            firstPiece = Long.numberOfTrailingZeros(board.getOccupancy(strong) & ~board.getPieceBitboard(strong, PieceType.KING));
+            if (board.getPieceBitboard(strong, PieceType.QUEEN) != 0) {
+                endgame = Endgame.KQK;
+            } else if (board.getPieceBitboard(strong, PieceType.ROOK) != 0) {
+                endgame = Endgame.KRK;
+            } else if (board.getPieceBitboard(strong, PieceType.PAWN) != 0) {
+                // A pawn on the first or last row (an unfinished promotion, or a FEN that puts one
+                // there) has no slot in the table.
+                int pawnX = Bitboards.squareX(firstPiece);
+                if (pawnX == 0 || pawnX == 7) {
+                    return NOT_FOUND;
+                }
+                endgame = Endgame.KPK;
+            } else {
+                return NOT_FOUND;
+            }
+        } else {
+            long bishops = board.getPieceBitboard(strong, PieceType.BISHOP);
+            long knights = board.getPieceBitboard(strong, PieceType.KNIGHT);
+            if (Long.bitCount(bishops) != 1 || Long.bitCount(knights) != 1) {
+                return NOT_FOUND;
+            }
+            endgame = Endgame.KBNK;
+            firstPiece = Long.numberOfTrailingZeros(bishops);
+            secondPiece = Long.numberOfTrailingZeros(knights);
+        }
+
+        Bitbase table = tables[endgame.ordinal()];
+        if (table == null) {
+            return NOT_FOUND;
+        }
+
+        int strongKing = board.getKingSquare(strong);
+        int weakKing = board.getKingSquare(weak);
+        // Tables are built with the strong side moving up the board like white.
+        if (strong == PieceColor.BLACK) {
+            strongKing ^= 56;
+            weakKing ^= 56;
+            firstPiece ^= 56;
+            secondPiece = secondPiece < 0 ? secondPiece : secondPiece ^ 56;
+        }
+
+        boolean strongToMove = board.getCurrentTurn() == strong;
+        int index = BitbaseIndex.index(endgame, strongKing, weakKing, firstPiece, secondPiece);
+        if (!table.isWin(index, strongToMove)) {
+            return DRAW;
+        }
+        return strongToMove ? WIN : LOSS;
+    }
+}
@@ -0,0 +1,44 @@
+package endgame;
+
+import pieces.PieceType;
+
+// Endgames covered by the bitbases: a king plus the listed pieces against a lone king.
+// Declaration order is generation order; KPK resolves promotions through KQK and KRK.
+public enum Endgame {
+    KQK(PieceType.QUEEN),
+    KRK(PieceType.ROOK),
+    KPK(PieceType.PAWN),
+    KBNK(PieceType.BISHOP, PieceType.KNIGHT);
+
+    private final PieceType[] pieces;
+
+    Endgame(PieceType... pieces) {
+        this.pieces = pieces;
+    }
+
+    // The strong side's pieces besides its king.
+    public PieceType[] getPieces() {
+        return pieces.clone();
+    }
+
+    public int getPieceCount() {
+        return pieces.length;
+    }
+
+    PieceType getPiece(int index) {
+        return pieces[index];
+    }
+
+    public boolean hasPawn() {
+        return pieces[0] == PieceType.PAWN;
+    }
+
+    public String getFileName() {
+        return name() + ".bb";
+    }
+
+    // Positions per side to move.
+    public int getPositionCount() {
+        return BitbaseIndex.size(this);
+    }
+}
@@ -149,7 +149,7 @@ public class ChessGUI {
         return Color.BLACK;
     }
 
-    private static class PieceButton extends JButton {
+    static class PieceButton extends JButton {
         private Piece piece;
 
         void setPiece(Piece piece) {
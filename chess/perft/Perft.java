@@ -0,0 +1,129 @@
+package perft;
+
+import core.Board;
+import core.Move;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Counts leaf nodes of the legal move tree (perft) for correctness checks and throughput numbers.
+public class Perft {
+    // Known node counts for the starting position, indexed by depth.
+    public static final long[] STARTING_POSITION_NODES = {
+            1L, 20L, 400L, 8902L, 197281L, 4865609L, 119060324L, 3195901860L
+    };
+
+    // Well-known reference positions (FEN, then node counts indexed by depth) that exercise
+    // castling, en passant, promotions and pins far more than the starting position does.
+    public static final String[] REFERENCE_FENS = {
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+    public static final long[][] REFERENCE_NODES = {
+            {1L, 48L, 2039L, 97862L, 4085603L, 193690690L},
+            {1L, 14L, 191L, 2812L, 43238L, 674624L, 11030083L},
+            {1L, 6L, 264L, 9467L, 422333L, 15833292L},
+            {1L, 44L, 1486L, 62379L, 2103487L, 89941194L},
+            {1L, 46L, 2079L, 89890L, 3894594L, 164075551L}
+    };
+
+    private final Board board;
+    private final int[][] moveBuffers;
+
+    public Perft(Board board, int maxDepth) {
+        this.board = board;
+        this.moveBuffers = new int[Math.max(maxDepth, 1) + 1][Board.MAX_MOVES];
+    }
+
+    public long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        int[] moves = moveBuffers[depth];
+        int moveCount = board.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moveCount;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            nodes += count(depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // Prints the node count below every root move, in the usual "e2e4: 20" format.
+    public long divide(int depth, PrintStream out) {
+        if (depth < 1) {
+            return 1;
+        }
+
+        int[] moves = moveBuffers[depth];
+        int moveCount = board.generateLegalMoves(moves);
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves[i]);
+            long moveNodes = count(depth - 1);
+            board.unmakeMove();
+
+            out.println(Move.toUci(moves[i]) + ": " + moveNodes);
+            nodes += moveNodes;
+        }
+        out.println();
+        out.println("Moves: " + moveCount);
+        out.println("Nodes: " + nodes);
+        return nodes;
+    }
+
+    // Splits the root moves across the pool; every task works on its own copy of the board.
+    public static long countParallel(Board board, int depth, ForkJoinPool pool) {
+        if (depth < 2) {
+            return new Perft(board, depth).count(depth);
+        }
+
+        int[] moves = new int[Board.MAX_MOVES];
+        int moveCount = board.generateLegalMoves(moves);
+
+        List<RootMoveTask> tasks = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            tasks.add(new RootMoveTask(board.deepCopy(), moves[i], depth - 1));
+        }
+
+        return pool.submit(() -> {
+            long nodes = 0;
+            for (RootMoveTask task : RecursiveTask.invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }).join();
+    }
+
+    // Fork/join tasks are never serialized.
+    @SuppressWarnings("serial")
+    private static class RootMoveTask extends RecursiveTask<Long> {
+        private final Board board;
+        private final int move;
+        private final int depth;
+
+        RootMoveTask(Board board, int move, int depth) {
+            this.board = board;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            board.makeMove(move);
+            return new Perft(board, depth).count(depth);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package pgn;
+
+import core.Board;
+import core.Move;
+import pieces.PieceColor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Replays a game's movetext on one reusable board, checking every move and the final result.
+// Not thread-safe; the parallel validator keeps one per worker thread.
+public class GameValidator {
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+
+    private final Board board = new Board();
+    private final int[] moves = new int[Board.MAX_MOVES];
+    // Moves of the last validated game, for callers that store games (e.g. the game archive).
+    private int[] playedMoves = new int[Board.MAX_PLY];
+    private String result;
+
+    public ValidationResult validate(PgnGame game) {
+        long index = game.getIndex();
+        try {
+            board.resetFromFen(game.getFen() != null ? game.getFen() : Board.STARTING_FEN);
+        } catch (IllegalArgumentException e) {
+            return new ValidationResult(index, ValidationResult.Status.PARSE_ERROR, 0, "bad FEN tag");
+        }
+
+        byte[] text = game.getMovetext();
+        String termination = null;
+        int plies = 0;
+        result = null;
+        int i = 0;
+        while (i < text.length) {
+            byte c = text[i];
+            if (PgnReader.isSpace(c)) {
+                i++;
+            } else if (c == '{') {
+                i = skipPast(text, i, (byte) '}');
+            } else if (c == ';') {
+                i = skipPast(text, i, (byte) '\n');
+            } else if (c == '(') {
+                i = skipVariation(text, i);
+            } else if (c == ')') {
+                return new ValidationResult(index, ValidationResult.Status.PARSE_ERROR, plies, "unbalanced ')'");
+            } else if (c == '$') {
+                i++;
+                while (i < text.length && isDigit(text[i])) {
+                    i++;
+                }
+            } else {
+                int end = tokenEnd(text, i);
+                String result = resultToken(text, i, end);
+                if (result != null) {
+                    termination = result;
+                    i = end;
+                    continue;
+                }
+
+                // Move numbers ("12." or "12...") may be glued to the move that follows them.
+                int start = i;
+                while (start < end && isDigit(text[start])) {
+                    start++;
+                }
+                if (start < end && text[start] == '.') {
+                    while (start < end && text[start] == '.') {
+                        start++;
+                    }
+                } else {
+                    start = i;
+                }
+
+                if (start < end) {
+                    int move = San.resolve(board, text, start, end, moves);
+                    if (move == Move.NONE) {
+                        String san = new String(text, start, end - start, StandardCharsets.ISO_8859_1);
+                        return new ValidationResult(index, ValidationResult.Status.ILLEGAL_MOVE, plies + 1, san);
+                    }
+                    board.makeMove(move);
+                    if (plies == playedMoves.length) {
+                        playedMoves = Arrays.copyOf(playedMoves, plies * 2);
+                    }
+                    playedMoves[plies++] = move;
+                }
+                i = end;
+            }
+        }
+
+        String declared = game.getResult() != null ? game.getResult() : termination;
+        result = declared;
+        if (declared != null && !"*".equals(declared) && board.generateLegalMoves(moves) == 0) {
+            boolean checkmate = board.isInCheck();
+            String expected = !checkmate ? "1/2-1/2" : board.getCurrentTurn() == PieceColor.WHITE ? "0-1" : "1-0";
+            if (!expected.equals(declared)) {
+                String detail = (checkmate ? "checkmate" : "stalemate") + ", expected " + expected + " but game says " + declared;
+                return new ValidationResult(index, ValidationResult.Status.RESULT_MISMATCH, plies, detail);
+            }
+        }
+        return new ValidationResult(index, ValidationResult.Status.LEGAL, plies, null);
+    }
+
+    // Moves played by the last validate call; the first ValidationResult.getPly() entries are valid
+    // for a legal game. The array is reused by the next call.
+    public int[] getPlayedMoves() {
+        return playedMoves;
+    }
+
+    // Result tag (or movetext termination marker) of the last validated game, or null.
+    public String getResult() {
+        return result;
+    }
+
+    private static int skipPast(byte[] text, int i, byte terminator) {
+        while (i < text.length && text[i] != terminator) {
+            i++;
+        }
+        return i + 1;
+    }
+
+    // Variations are skipped, including nested ones and comments inside them.
+    private static int skipVariation(byte[] text, int i) {
+        int depth = 0;
+        while (i < text.length) {
+            byte c = text[i];
+            if (c == '{') {
+                i = skipPast(text, i, (byte) '}');
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(byte[] text, int i) {
+        while (i < text.length) {
+            byte c = text[i];
+            if (PgnReader.isSpace(c) || c == '{' || c == '(' || c == ')' || c == ';' || c == '$') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static String resultToken(byte[] text, int start, int end) {
+        for (String result : RESULTS) {
+            if (end - start == result.length() && matches(text, start, result)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(byte[] text, int start, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (text[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,35 @@
+package pgn;
+
+// One game cut out of a PGN stream: the tags validation needs plus the raw movetext bytes.
+public final class PgnGame {
+    private final long index;
+    private final String fen;
+    private final String result;
+    private final byte[] movetext;
+
+    public PgnGame(long index, String fen, String result, byte[] movetext) {
+        this.index = index;
+        this.fen = fen;
+        this.result = result;
+        this.movetext = movetext;
+    }
+
+    // 1-based position of the game in its file.
+    public long getIndex() {
+        return index;
+    }
+
+    // Starting position from the FEN tag, or null for the standard start.
+    public String getFen() {
+        return fen;
+    }
+
+    // Value of the Result tag, or null when the game has none.
+    public String getResult() {
+        return result;
+    }
+
+    public byte[] getMovetext() {
+        return movetext;
+    }
+}
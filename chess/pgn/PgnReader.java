@@ -0,0 +1,250 @@
+package pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Streams games out of a PGN channel through one fixed read buffer, so files of any size are read
+// without loading them into memory. A game ends at the first tag line after its movetext, or at
+// movetext that follows a game termination marker (1-0, 0-1, 1/2-1/2 or *).
+// Not thread-safe: one thread reads and hands the games to the workers.
+public class PgnReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+
+    // Game being assembled.
+    private byte[] movetext = new byte[4096];
+    private int movetextLength;
+    private String fen;
+    private String result;
+    private boolean inMovetext;
+    // Movetext scan state carried across lines: open brace comment, variation depth, and whether
+    // a termination marker has been seen outside comments and variations.
+    private boolean inComment;
+    private int variationDepth;
+    private boolean terminated;
+    private boolean hasContent;
+    private long nextIndex = 1;
+
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    public static PgnReader open(Path path) throws IOException {
+        return new PgnReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    // Next game in the stream, or null at the end of input.
+    public PgnGame next() throws IOException {
+        while (readLine()) {
+            int start = 0;
+            while (start < lineLength && isSpace(line[start])) {
+                start++;
+            }
+            if (start == lineLength || line[start] == '%') {
+                continue;
+            }
+
+            if (line[start] == '[') {
+                if (inMovetext) {
+                    PgnGame game = finishGame();
+                    parseTag(start);
+                    hasContent = true;
+                    return game;
+                }
+                parseTag(start);
+                hasContent = true;
+                continue;
+            }
+
+            if (terminated) {
+                PgnGame game = finishGame();
+                startMovetext(start);
+                return game;
+            }
+            startMovetext(start);
+        }
+
+        return hasContent ? finishGame() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private PgnGame finishGame() {
+        PgnGame game = new PgnGame(nextIndex++, fen, result, Arrays.copyOf(movetext, movetextLength));
+        movetextLength = 0;
+        fen = null;
+        result = null;
+        inMovetext = false;
+        hasContent = false;
+        inComment = false;
+        variationDepth = 0;
+        terminated = false;
+        return game;
+    }
+
+    private void startMovetext(int start) {
+        appendMovetext(start);
+        scanForTermination(start);
+        inMovetext = true;
+        hasContent = true;
+    }
+
+    private void scanForTermination(int start) {
+        int i = start;
+        while (i < lineLength) {
+            byte c = line[i];
+            if (inComment) {
+                inComment = c != '}';
+                i++;
+            } else if (c == '{') {
+                inComment = true;
+                i++;
+            } else if (c == ';') {
+                return;
+            } else if (c == '(') {
+                variationDepth++;
+                i++;
+            } else if (c == ')') {
+                variationDepth = Math.max(0, variationDepth - 1);
+                i++;
+            } else if (isSpace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < lineLength && !isSpace(line[end]) && line[end] != '{' && line[end] != '('
+                        && line[end] != ')' && line[end] != ';') {
+                    end++;
+                }
+                if (variationDepth == 0 && isTerminationMarker(i, end)) {
+                    terminated = true;
+                }
+                i = end;
+            }
+        }
+    }
+
+    private boolean isTerminationMarker(int start, int end) {
+        return lineMatches(start, end, "1-0") || lineMatches(start, end, "0-1")
+                || lineMatches(start, end, "1/2-1/2") || lineMatches(start, end, "*");
+    }
+
+    // Keeps only the tags validation needs: [FEN "..."] and [Result "..."].
+    private void parseTag(int start) {
+        int nameStart = start + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < lineLength && !isSpace(line[nameEnd]) && line[nameEnd] != '"') {
+            nameEnd++;
+        }
+        boolean isFen = lineMatches(nameStart, nameEnd, "FEN");
+        if (!isFen && !lineMatches(nameStart, nameEnd, "Result")) {
+            return;
+        }
+
+        int valueStart = nameEnd;
+        while (valueStart < lineLength && line[valueStart] != '"') {
+            valueStart++;
+        }
+        int valueEnd = lineLength - 1;
+        while (valueEnd > valueStart && line[valueEnd] != '"') {
+            valueEnd--;
+        }
+        if (valueEnd <= valueStart) {
+            return;
+        }
+
+        String value = new String(line, valueStart + 1, valueEnd - valueStart - 1, StandardCharsets.ISO_8859_1);
+        if (isFen) {
+            fen = value;
+        } else {
+            result = value;
+        }
+    }
+
+    // Compares line[start, end) with an ASCII string.
+    private boolean lineMatches(int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (line[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lines keep their break so that ';' comments still end where the line did.
+    private void appendMovetext(int start) {
+        int length = lineLength - start + 1;
+        if (movetextLength + length > movetext.length) {
+            movetext = Arrays.copyOf(movetext, Math.max(movetext.length * 2, movetextLength + length));
+        }
+        System.arraycopy(line, start, movetext, movetextLength, length - 1);
+        movetextLength += length;
+        movetext[movetextLength - 1] = '\n';
+    }
+
+    // Reads the next line (without its terminator) into line/lineLength; false at end of input.
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean readAny = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read < 0) {
+                    return readAny;
+                }
+                continue;
+            }
+
+            readAny = true;
+            byte[] data = buffer.array();
+            int position = buffer.position();
+            int limit = buffer.limit();
+            int end = position;
+            while (end < limit && data[end] != '\n') {
+                end++;
+            }
+            appendToLine(data, position, end - position);
+
+            if (end < limit) {
+                buffer.position(end + 1);
+                if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                    lineLength--;
+                }
+                return true;
+            }
+            buffer.position(limit);
+        }
+    }
+
+    private void appendToLine(byte[] data, int offset, int length) {
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(data, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
@@ -0,0 +1,96 @@
+package pgn;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+// Validates a PGN stream in parallel. The calling thread reads games, a work-stealing pool replays
+// them (one GameValidator per worker), and a single consumer thread hands results to the listener.
+// At most queueCapacity games are in flight at once, so a multi-gigabyte dump is read only as fast as
+// the workers keep up and memory stays flat. Results arrive in completion order, not file order.
+public class PgnValidator {
+    private static final ValidationResult END_OF_RESULTS = new ValidationResult(-1, null, 0, null);
+
+    private final int threads;
+    private final int queueCapacity;
+
+    public PgnValidator(int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queueCapacity must be positive");
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ValidationReport validate(PgnReader reader, Consumer<ValidationResult> listener)
+            throws IOException, InterruptedException {
+        ValidationReport report = new ValidationReport();
+        BlockingQueue<ValidationResult> results = new ArrayBlockingQueue<>(queueCapacity);
+        Semaphore inFlight = new Semaphore(queueCapacity);
+        ThreadLocal<GameValidator> validators = ThreadLocal.withInitial(GameValidator::new);
+        RuntimeException[] listenerFailure = new RuntimeException[1];
+
+        Thread consumer = new Thread(() -> {
+            try {
+                for (ValidationResult result = results.take(); result != END_OF_RESULTS; result = results.take()) {
+                    report.add(result);
+                    if (listenerFailure[0] == null) {
+                        try {
+                            listener.accept(result);
+                        } catch (RuntimeException e) {
+                            // Keep draining so the workers never block on a full queue.
+                            listenerFailure[0] = e;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "pgn-results");
+        consumer.start();
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        try {
+            PgnGame game;
+            while ((game = reader.next()) != null) {
+                inFlight.acquire();
+                PgnGame task = game;
+                pool.execute(() -> {
+                    try {
+                        results.put(validateSafely(validators.get(), task));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+
+            // All permits back means every game has been validated and queued.
+            inFlight.acquire(queueCapacity);
+            results.put(END_OF_RESULTS);
+            consumer.join();
+        } finally {
+            pool.shutdownNow();
+            consumer.interrupt();
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+
+        if (listenerFailure[0] != null) {
+            throw listenerFailure[0];
+        }
+        return report;
+    }
+
+    private static ValidationResult validateSafely(GameValidator validator, PgnGame game) {
+        try {
+            return validator.validate(game);
+        } catch (RuntimeException e) {
+            return new ValidationResult(game.getIndex(), ValidationResult.Status.PARSE_ERROR, 0, e.toString());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package pgn;
+
+import core.Bitboards;
+import core.Board;
+import core.Move;
+import pieces.PieceType;
+
+// Resolves Standard Algebraic Notation ("Nbd7", "exd6", "e8=Q+", "O-O-O") against the legal moves
+// of a position.
+public final class San {
+    private San() {
+    }
+
+    // Packed legal move written as text[start, end), or Move.NONE when the text is malformed,
+    // illegal in this position or ambiguous. moves is scratch space of Board.MAX_MOVES entries.
+    public static int resolve(Board board, byte[] text, int start, int end, int[] moves) {
+        while (end > start && isAnnotation(text[end - 1])) {
+            end--;
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+
+        int moveCount = board.generateLegalMoves(moves);
+        if (text[start] == 'O' || text[start] == '0') {
+            return resolveCastling(text, start, end, moves, moveCount);
+        }
+
+        PieceType type = pieceType(text[start]);
+        int i = start;
+        if (type == null) {
+            type = PieceType.PAWN;
+        } else {
+            i++;
+        }
+
+        int promotion = 0;
+        if (type == PieceType.PAWN && end - i > 2) {
+            byte last = text[end - 1];
+            boolean afterEquals = text[end - 2] == '=';
+            PieceType promoted = afterEquals ? pieceType(upperCase(last)) : pieceType(last);
+            if (promoted == PieceType.KING || (afterEquals && promoted == null)) {
+                return Move.NONE;
+            }
+            if (promoted != null) {
+                promotion = promoted.ordinal();
+                end -= afterEquals ? 2 : 1;
+            }
+        }
+        if (end - i < 2) {
+            return Move.NONE;
+        }
+
+        int toY = text[end - 2] - 'a';
+        int toX = '8' - text[end - 1];
+        if (toY < 0 || toY > 7 || toX < 0 || toX > 7) {
+            return Move.NONE;
+        }
+
+        // Disambiguation: an optional origin file and/or rank, with an optional capture mark.
+        int fromX = -1;
+        int fromY = -1;
+        boolean capture = false;
+        for (int j = i; j < end - 2; j++) {
+            byte c = text[j];
+            if (c >= 'a' && c <= 'h') {
+                fromY = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromX = '8' - c;
+            } else if (c == 'x' || c == ':') {
+                capture = true;
+            } else if (c != '-') {
+                return Move.NONE;
+            }
+        }
+        // A pawn capture names its origin file ("exd5"); without one ("d5") the pawn pushes on its file.
+        if (type == PieceType.PAWN && fromY == -1) {
+            if (capture) {
+                return Move.NONE;
+            }
+            fromY = toY;
+        }
+
+        int to = Bitboards.square(toX, toY);
+        long pieces = board.getPieceBitboard(board.getCurrentTurn(), type);
+        int found = Move.NONE;
+        for (int m = 0; m < moveCount; m++) {
+            int move = moves[m];
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotionType(move) != promotion
+                    || Move.isCapture(move) != capture
+                    || (pieces & Bitboards.bit(from)) == 0
+                    || (fromX != -1 && Bitboards.squareX(from) != fromX)
+                    || (fromY != -1 && Bitboards.squareY(from) != fromY)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static int resolveCastling(byte[] text, int start, int end, int[] moves, int moveCount) {
+        int length = end - start;
+        if (length != 3 && length != 5) {
+            return Move.NONE;
+        }
+        for (int i = start; i < end; i++) {
+            byte expected = (i - start) % 2 == 0 ? text[start] : (byte) '-';
+            if (text[i] != expected) {
+                return Move.NONE;
+            }
+        }
+
+        int kingTargetY = length == 3 ? 6 : 2;
+        for (int i = 0; i < moveCount; i++) {
+            if (Move.isCastling(moves[i]) && Move.endY(moves[i]) == kingTargetY) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static PieceType pieceType(byte c) {
+        return switch (c) {
+            case 'N' -> PieceType.KNIGHT;
+            case 'B' -> PieceType.BISHOP;
+            case 'R' -> PieceType.ROOK;
+            case 'Q' -> PieceType.QUEEN;
+            case 'K' -> PieceType.KING;
+            default -> null;
+        };
+    }
+
+    private static byte upperCase(byte c) {
+        return c >= 'a' && c <= 'z' ? (byte) (c - 32) : c;
+    }
+
+    private static boolean isAnnotation(byte c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+}
@@ -0,0 +1,76 @@
+package pgn;
+
+// Totals and throughput for one validation run.
+public final class ValidationReport {
+    private long games;
+    private long plies;
+    private long legal;
+    private long illegal;
+    private long resultMismatches;
+    private long parseErrors;
+    private long elapsedNanos;
+
+    void add(ValidationResult result) {
+        games++;
+        plies += result.getStatus() == ValidationResult.Status.ILLEGAL_MOVE ? result.getPly() - 1 : result.getPly();
+        switch (result.getStatus()) {
+            case LEGAL -> legal++;
+            case ILLEGAL_MOVE -> illegal++;
+            case RESULT_MISMATCH -> resultMismatches++;
+            case PARSE_ERROR -> parseErrors++;
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    // Plies replayed successfully, across all games.
+    public long getPlies() {
+        return plies;
+    }
+
+    public long getLegal() {
+        return legal;
+    }
+
+    public long getIllegal() {
+        return illegal;
+    }
+
+    public long getResultMismatches() {
+        return resultMismatches;
+    }
+
+    public long getParseErrors() {
+        return parseErrors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getGamesPerSecond() {
+        return perSecond(games);
+    }
+
+    public double getPliesPerSecond() {
+        return perSecond(plies);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos > 0 ? count * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games (%d legal, %d illegal, %d result mismatches, %d parse errors), %d plies "
+                        + "in %.3f s: %.0f games/s, %.0f plies/s",
+                games, legal, illegal, resultMismatches, parseErrors, plies,
+                elapsedNanos / 1_000_000_000.0, getGamesPerSecond(), getPliesPerSecond());
+    }
+}
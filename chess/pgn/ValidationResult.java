@@ -0,0 +1,50 @@
+package pgn;
+
+// Outcome of replaying one game.
+public final class ValidationResult {
+    public enum Status {
+        LEGAL,
+        ILLEGAL_MOVE,
+        RESULT_MISMATCH,
+        PARSE_ERROR
+    }
+
+    private final long gameIndex;
+    private final Status status;
+    private final int ply;
+    private final String detail;
+
+    public ValidationResult(long gameIndex, Status status, int ply, String detail) {
+        this.gameIndex = gameIndex;
+        this.status = status;
+        this.ply = ply;
+        this.detail = detail;
+    }
+
+    public long getGameIndex() {
+        return gameIndex;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Plies played for a legal game or a result mismatch; the offending ply for an illegal move.
+    public int getPly() {
+        return ply;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    @Override
+    public String toString() {
+        return switch (status) {
+            case LEGAL -> "game " + gameIndex + ": legal (" + ply + " plies)";
+            case ILLEGAL_MOVE -> "game " + gameIndex + ": illegal at ply " + ply + " (" + detail + ")";
+            case RESULT_MISMATCH -> "game " + gameIndex + ": result mismatch (" + detail + ")";
+            case PARSE_ERROR -> "game " + gameIndex + ": parse error (" + detail + ")";
+        };
+    }
+}
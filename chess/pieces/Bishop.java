@@ -9,6 +9,11 @@ public class Bishop extends Piece {
         super(color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
     @Override
     public String getSymbol() {
         if (this.getColor() == PieceColor.WHITE) {
@@ -9,6 +9,11 @@ public class King extends Piece {
         super(color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
+    }
+
     @Override
     public String getSymbol() {
         if (this.getColor() == PieceColor.WHITE) {
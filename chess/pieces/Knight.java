@@ -9,6 +9,11 @@ public class Knight extends Piece {
         super(color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
+
     @Override
     public String getSymbol() {
         if (this.getColor() == PieceColor.WHITE) {
@@ -9,6 +9,11 @@ public class Pawn extends Piece {
         super(color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
     @Override
     public String getSymbol() {
         if (this.getColor() == PieceColor.WHITE) {
@@ -39,6 +39,9 @@ public void setKilled(boolean killed) {
         return false;
     }
 
+    // Every piece reports its type so the board can index its bitboards without instanceof checks.
+    public abstract PieceType getType();
+
     // Every piece must provide a symbol (like "W-N" for White Knight)
     public abstract String getSymbol();
 
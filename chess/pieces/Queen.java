@@ -9,6 +9,11 @@ public class Queen extends Piece {
         super(color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
     @Override
     public String getSymbol() {
         if (this.getColor() == PieceColor.WHITE) {
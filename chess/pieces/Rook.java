@@ -9,6 +9,11 @@ public class Rook extends Piece {
         super(color);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
     // --- UPDATED METHOD ---
     // Now returning actual chess piece icons using Unicode!
     @Override
@@ -0,0 +1,70 @@
+package positions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Entry encoding shared by sorted runs and index blocks. Entries are (key, posting) pairs sorted by
+// unsigned key, then posting. Each entry stores the key delta as a varint; when the key repeats, the
+// posting is stored as a delta too, otherwise in full. A posting packs game number and ply.
+final class DeltaCoding {
+    static final int PLY_BITS = 16;
+    static final long PLY_MASK = (1L << PLY_BITS) - 1;
+    // Largest possible encoded entry: two 10-byte varints.
+    static final int MAX_ENTRY_BYTES = 20;
+
+    private DeltaCoding() {
+    }
+
+    static long posting(long game, int ply) {
+        return game << PLY_BITS | ply;
+    }
+
+    static void writeEntry(DataOutput out, long key, long posting, long previousKey, long previousPosting) throws IOException {
+        long keyDelta = key - previousKey;
+        writeVarLong(out, keyDelta);
+        writeVarLong(out, keyDelta == 0 ? posting - previousPosting : posting);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static void writeVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // Reads a varint at position[0] of a mapped buffer and advances it; used by index lookups.
+    static long readVarLong(ByteBuffer buffer, int[] position) {
+        long value = 0;
+        int p = position[0];
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get(p++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                position[0] = p;
+                return value;
+            }
+        }
+    }
+}
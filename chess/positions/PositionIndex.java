@@ -0,0 +1,166 @@
+package positions;
+
+import core.Board;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Memory-mapped position index built by PositionIndexBuilder: for every position key seen after any
+// ply of any game, the (game, ply) postings where it occurred. A lookup binary-searches the mapped
+// block directory and decodes one or two small blocks, so it touches a few pages however large the
+// corpus is. Only absolute reads touch the mappings, so one instance can serve any number of threads.
+//
+// File layout (big-endian): magic "POSINDX1", entry count, block count, directory offset (all u64);
+// blocks of BLOCK_ENTRIES delta-coded entries (see DeltaCoding), each starting from its first key
+// with a full posting; the directory of (first key, block offset) pairs, one per block.
+public final class PositionIndex {
+    static final long MAGIC = 0x504f53494e445831L;
+    static final int HEADER_BYTES = 32;
+    static final int BLOCK_ENTRIES = 128;
+
+    // A single mapping is limited to 2 GB, so blocks are mapped in 1 GB segments that overlap by the
+    // largest possible block; every block then lies entirely inside one segment.
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int SEGMENT_OVERLAP = BLOCK_ENTRIES * DeltaCoding.MAX_ENTRY_BYTES;
+
+    private final MappedByteBuffer[] segments;
+    private final LongBuffer directory;
+    private final long entryCount;
+    private final int blockCount;
+
+    private PositionIndex(MappedByteBuffer[] segments, LongBuffer directory, long entryCount, int blockCount) {
+        this.segments = segments;
+        this.directory = directory;
+        this.entryCount = entryCount;
+        this.blockCount = blockCount;
+    }
+
+    public static PositionIndex open(Path path) throws IOException {
+        // The mappings stay valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, HEADER_BYTES));
+            if (size < HEADER_BYTES || header.getLong(0) != MAGIC) {
+                throw new IOException(path + ": not a position index");
+            }
+            long entryCount = header.getLong(8);
+            long blockCount = header.getLong(16);
+            long directoryOffset = header.getLong(24);
+            if (directoryOffset + blockCount * 16 != size || blockCount * 16 > Integer.MAX_VALUE) {
+                throw new IOException(path + ": corrupt or unsupported position index");
+            }
+
+            LongBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, blockCount * 16).asLongBuffer();
+            int segmentCount = (int) Math.max(1, (directoryOffset + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(directoryOffset - start, SEGMENT_SIZE + SEGMENT_OVERLAP));
+            }
+            return new PositionIndex(segments, directory, entryCount, (int) blockCount);
+        }
+    }
+
+    // Total number of (position, game, ply) entries.
+    public long size() {
+        return entryCount;
+    }
+
+    public static long game(long posting) {
+        return posting >>> DeltaCoding.PLY_BITS;
+    }
+
+    public static int ply(long posting) {
+        return (int) (posting & DeltaCoding.PLY_MASK);
+    }
+
+    // The board's Zobrist key. It leaves out the en passant file when no pawn could capture, so
+    // "after 1.e4" matches the same position reached without a double push.
+    public static long positionKey(Board board) {
+        return board.getZobristKey();
+    }
+
+    public long[] lookup(Board board) {
+        return lookup(positionKey(board));
+    }
+
+    // Postings for a positionKey, sorted by game and ply; decode them with game() and ply().
+    public long[] lookup(long key) {
+        long[] postings = new long[16];
+        int count = 0;
+        int[] position = new int[1];
+
+        // The key's entries may start at the end of the block before the first block at or above it.
+        int block = Math.max(0, firstBlockNotBelow(key) - 1);
+        for (; block < blockCount; block++) {
+            if (Long.compareUnsigned(firstKey(block), key) > 0) {
+                break;
+            }
+            long offset = blockOffset(block);
+            MappedByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+            position[0] = (int) (offset & (SEGMENT_SIZE - 1));
+            int entries = (int) Math.min(BLOCK_ENTRIES, entryCount - (long) block * BLOCK_ENTRIES);
+
+            long entryKey = firstKey(block);
+            long posting = 0;
+            for (int i = 0; i < entries; i++) {
+                long keyDelta = DeltaCoding.readVarLong(segment, position);
+                long value = DeltaCoding.readVarLong(segment, position);
+                entryKey += keyDelta;
+                posting = keyDelta == 0 ? posting + value : value;
+
+                int order = Long.compareUnsigned(entryKey, key);
+                if (order > 0) {
+                    return Arrays.copyOf(postings, count);
+                }
+                if (order == 0) {
+                    if (count == postings.length) {
+                        postings = Arrays.copyOf(postings, count * 2);
+                    }
+                    postings[count++] = posting;
+                }
+            }
+        }
+        return Arrays.copyOf(postings, count);
+    }
+
+    // Number of distinct games among sorted postings.
+    public static int countGames(long[] postings) {
+        int games = 0;
+        for (int i = 0; i < postings.length; i++) {
+            if (i == 0 || game(postings[i]) != game(postings[i - 1])) {
+                games++;
+            }
+        }
+        return games;
+    }
+
+    private int firstBlockNotBelow(long key) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(firstKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long firstKey(int block) {
+        return directory.get(2 * block);
+    }
+
+    private long blockOffset(int block) {
+        return directory.get(2 * block + 1);
+    }
+}
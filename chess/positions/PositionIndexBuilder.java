@@ -0,0 +1,288 @@
+package positions;
+
+import archive.ArchivedGame;
+import archive.GameArchive;
+import core.Board;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Builds a PositionIndex from a game archive with a parallel external sort, so corpora larger than
+// memory work:
+// 1. Workers take chunks of games in order, replay them and buffer (position key, game/ply posting)
+//    for every ply. A full buffer is radix-sorted by key and spilled as a delta-coded run file.
+// 2. The runs are k-way merged into the final block-indexed file.
+// Memory use is bounded by the buffer budget, split evenly between the workers.
+public class PositionIndexBuilder {
+    private static final int CHUNK_GAMES = 1024;
+    // Keys, postings and their two sort scratch arrays.
+    private static final int BYTES_PER_BUFFERED_ENTRY = 32;
+    private static final int RADIX_BITS = 16;
+    private static final int WRITE_BUFFER = 1 << 20;
+
+    private final int threads;
+    private final long memoryBytes;
+    private final Path tempDirectory;
+    private final PrintStream log;
+
+    public PositionIndexBuilder(int threads, long memoryBytes, Path tempDirectory, PrintStream log) {
+        if (threads < 1 || memoryBytes < 1) {
+            throw new IllegalArgumentException("threads and memoryBytes must be positive");
+        }
+        this.threads = threads;
+        this.memoryBytes = memoryBytes;
+        this.tempDirectory = tempDirectory;
+        this.log = log;
+    }
+
+    public void build(GameArchive archive, Path output) throws IOException, InterruptedException {
+        int bufferEntries = (int) Math.max(1024, Math.min(Integer.MAX_VALUE - 8, memoryBytes / threads / BYTES_PER_BUFFERED_ENTRY));
+        List<Path> runs = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            long entries = spillRuns(archive, bufferEntries, runs);
+            log.printf("Sorted %d positions into %d runs in %.2f s%n", entries, runs.size(), seconds(start));
+
+            start = System.nanoTime();
+            merge(runs, entries, output);
+            log.printf("Merged into %s (%d bytes, %.2f bytes/position) in %.2f s%n",
+                    output, Files.size(output), (double) Files.size(output) / Math.max(1, entries), seconds(start));
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private long spillRuns(GameArchive archive, int bufferEntries, List<Path> runs) throws IOException, InterruptedException {
+        AtomicLong nextChunk = new AtomicLong();
+        AtomicInteger runNumber = new AtomicInteger();
+        long chunks = (archive.size() + CHUNK_GAMES - 1) / CHUNK_GAMES;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Worker> workers = new ArrayList<>();
+        List<Future<?>> running = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Worker worker = new Worker(bufferEntries, runNumber);
+                workers.add(worker);
+                running.add(pool.submit(() -> {
+                    // Chunks are taken in increasing order, so each worker's postings arrive sorted
+                    // and the stable key sort leaves entries ordered by (key, posting).
+                    for (long chunk = nextChunk.getAndIncrement(); chunk < chunks; chunk = nextChunk.getAndIncrement()) {
+                        long first = chunk * CHUNK_GAMES;
+                        archive.forEach(first, Math.min(archive.size(), first + CHUNK_GAMES), worker::addGame);
+                    }
+                    worker.spill();
+                    return null;
+                }));
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+            throw new IOException("Index worker failed: " + cause.getMessage(), cause);
+        } finally {
+            pool.shutdownNow();
+            // Handed back even on failure so the caller deletes every spilled run.
+            for (Worker worker : workers) {
+                runs.addAll(worker.runs);
+            }
+        }
+
+        long entries = 0;
+        for (Worker worker : workers) {
+            entries += worker.entries;
+        }
+        return entries;
+    }
+
+    // One thread's sort buffer and the runs it has spilled.
+    private final class Worker {
+        private final long[] keys;
+        private final long[] postings;
+        private final long[] keyScratch;
+        private final long[] postingScratch;
+        private final AtomicInteger runNumber;
+        private final Board board = new Board();
+        private final List<Path> runs = new ArrayList<>();
+        private int count;
+        private long entries;
+
+        Worker(int bufferEntries, AtomicInteger runNumber) {
+            this.keys = new long[bufferEntries];
+            this.postings = new long[bufferEntries];
+            this.keyScratch = new long[bufferEntries];
+            this.postingScratch = new long[bufferEntries];
+            this.runNumber = runNumber;
+        }
+
+        void addGame(ArchivedGame game) {
+            String fen = game.getStartFen();
+            board.resetFromFen(fen == null ? Board.STARTING_FEN : fen);
+            for (int ply = 0; ply < game.getPlyCount(); ply++) {
+                board.makeMove(game.getMove(ply));
+                if (count == keys.length) {
+                    spill();
+                }
+                keys[count] = PositionIndex.positionKey(board);
+                postings[count++] = DeltaCoding.posting(game.getNumber(), ply + 1);
+            }
+        }
+
+        void spill() {
+            if (count == 0) {
+                return;
+            }
+            radixSort(keys, postings, keyScratch, postingScratch, count);
+            Path run = tempDirectory.resolve("positions-" + ProcessHandle.current().pid() + "-" + runNumber.getAndIncrement() + ".run");
+            try {
+                SortedRun.write(run, keys, postings, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            runs.add(run);
+            entries += count;
+            count = 0;
+        }
+    }
+
+    // Stable LSD radix sort of the pairs by unsigned key, 16 bits per pass.
+    static void radixSort(long[] keys, long[] postings, long[] keyScratch, long[] postingScratch, int count) {
+        int[] counts = new int[1 << RADIX_BITS];
+        long[] fromKeys = keys;
+        long[] fromPostings = postings;
+        long[] toKeys = keyScratch;
+        long[] toPostings = postingScratch;
+
+        for (int shift = 0; shift < 64; shift += RADIX_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < count; i++) {
+                counts[(int) (fromKeys[i] >>> shift) & 0xFFFF]++;
+            }
+            int sum = 0;
+            for (int d = 0; d < counts.length; d++) {
+                int c = counts[d];
+                counts[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) {
+                int slot = counts[(int) (fromKeys[i] >>> shift) & 0xFFFF]++;
+                toKeys[slot] = fromKeys[i];
+                toPostings[slot] = fromPostings[i];
+            }
+            long[] swap = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swap;
+            swap = fromPostings;
+            fromPostings = toPostings;
+            toPostings = swap;
+        }
+        // An even number of passes leaves the sorted pairs back in keys and postings.
+    }
+
+    private void merge(List<Path> runPaths, long entries, Path output) throws IOException {
+        PriorityQueue<SortedRun> queue = new PriorityQueue<>(Math.max(1, runPaths.size()), (a, b) -> {
+            int order = Long.compareUnsigned(a.getKey(), b.getKey());
+            return order != 0 ? order : Long.compare(a.getPosting(), b.getPosting());
+        });
+        List<SortedRun> open = new ArrayList<>();
+        long blockCount = (entries + PositionIndex.BLOCK_ENTRIES - 1) / PositionIndex.BLOCK_ENTRIES;
+        long[] directory = new long[(int) Math.min(Integer.MAX_VALUE - 8, blockCount * 2)];
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path path : runPaths) {
+                SortedRun run = SortedRun.open(path);
+                open.add(run);
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+            long written = PositionIndex.HEADER_BYTES;
+            channel.position(written);
+            long entry = 0;
+            long previousKey = 0;
+            long previousPosting = 0;
+            while (!queue.isEmpty()) {
+                SortedRun run = queue.poll();
+                long key = run.getKey();
+                long posting = run.getPosting();
+
+                if (buffer.remaining() < DeltaCoding.MAX_ENTRY_BYTES) {
+                    written += drain(channel, buffer);
+                }
+                if (entry % PositionIndex.BLOCK_ENTRIES == 0) {
+                    int block = (int) (entry / PositionIndex.BLOCK_ENTRIES);
+                    directory[2 * block] = key;
+                    directory[2 * block + 1] = written + buffer.position();
+                    previousKey = key;
+                    previousPosting = 0;
+                }
+                long keyDelta = key - previousKey;
+                DeltaCoding.writeVarLong(buffer, keyDelta);
+                DeltaCoding.writeVarLong(buffer, keyDelta == 0 ? posting - previousPosting : posting);
+                previousKey = key;
+                previousPosting = posting;
+                entry++;
+
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+            written += drain(channel, buffer);
+
+            long directoryOffset = written;
+            for (int i = 0; i < blockCount * 2; i++) {
+                if (buffer.remaining() < 8) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(directory[i]);
+            }
+            drain(channel, buffer);
+
+            buffer.putLong(PositionIndex.MAGIC).putLong(entry).putLong(blockCount).putLong(directoryOffset);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+        } finally {
+            for (SortedRun run : open) {
+                run.close();
+            }
+        }
+    }
+
+    private static int drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return bytes;
+    }
+
+    private static double seconds(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,71 @@
+package positions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// A temporary file of sorted, delta-coded entries spilled by one builder worker: the entry count
+// (u64) followed by the entries. Reading is a forward-only cursor for the k-way merge.
+final class SortedRun implements Closeable {
+    private static final int WRITE_BUFFER = 1 << 20;
+    private static final int READ_BUFFER = 1 << 16;
+
+    private final DataInputStream in;
+    private long remaining;
+    private long key;
+    private long posting;
+
+    private SortedRun(DataInputStream in, long entries) {
+        this.in = in;
+        this.remaining = entries;
+    }
+
+    static void write(Path path, long[] keys, long[] postings, int count) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), WRITE_BUFFER))) {
+            out.writeLong(count);
+            long previousKey = 0;
+            long previousPosting = 0;
+            for (int i = 0; i < count; i++) {
+                DeltaCoding.writeEntry(out, keys[i], postings[i], previousKey, previousPosting);
+                previousKey = keys[i];
+                previousPosting = postings[i];
+            }
+        }
+    }
+
+    static SortedRun open(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), READ_BUFFER));
+        return new SortedRun(in, in.readLong());
+    }
+
+    // Moves to the next entry; false when the run is exhausted.
+    boolean advance() throws IOException {
+        if (remaining == 0) {
+            return false;
+        }
+        remaining--;
+        long keyDelta = DeltaCoding.readVarLong(in);
+        long value = DeltaCoding.readVarLong(in);
+        key += keyDelta;
+        posting = keyDelta == 0 ? posting + value : value;
+        return true;
+    }
+
+    long getKey() {
+        return key;
+    }
+
+    long getPosting() {
+        return posting;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,35 @@
+package search;
+
+import core.Bitboards;
+import core.Board;
+import core.PieceSquareTables;
+import pieces.PieceColor;
+
+// Tapered evaluation from the side to move's point of view: the Board's incrementally kept material
+// and piece-square sums plus pawn structure and king shields from the pawn hash table.
+public final class Evaluation {
+    // Middlegame bonus per shield point for a king still on its first two rows.
+    private static final int SHIELD_BONUS = 8;
+
+    private Evaluation() {
+    }
+
+    public static int evaluate(Board board, PawnHashTable pawns) {
+        int slot = pawns.probe(board);
+        int shield = SHIELD_BONUS * (shield(board, pawns, slot, PieceColor.WHITE) - shield(board, pawns, slot, PieceColor.BLACK));
+        int middlegame = board.getMiddlegameScore() + pawns.middlegame(slot) + shield;
+        int endgame = board.getEndgameScore() + pawns.endgame(slot);
+        int score = PieceSquareTables.blend(middlegame, endgame, board.getGamePhase());
+        return board.getCurrentTurn() == PieceColor.WHITE ? score : -score;
+    }
+
+    private static int shield(Board board, PawnHashTable pawns, int slot, PieceColor color) {
+        int king = board.getKingSquare(color);
+        if (king == -1) {
+            return 0;
+        }
+        int x = Bitboards.squareX(king);
+        boolean home = color == PieceColor.WHITE ? x >= 6 : x <= 1;
+        return home ? pawns.shield(slot, color.ordinal(), Bitboards.squareY(king)) : 0;
+    }
+}
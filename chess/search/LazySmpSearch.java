@@ -0,0 +1,125 @@
+package search;
+
+import core.Board;
+import endgame.Bitbases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// Lazy SMP: helper threads search the same root on their own board copies and only cooperate
+// through the shared transposition table. The calling thread runs the main search, whose result
+// is the one reported; helpers are stopped as soon as it returns.
+public class LazySmpSearch {
+    private final TranspositionTable transpositionTable;
+    private final Search mainSearch;
+    private final List<Search> helpers = new ArrayList<>();
+    private ExecutorService helperPool;
+    private Bitbases bitbases;
+
+    public LazySmpSearch(TranspositionTable transpositionTable, int threads) {
+        this.transpositionTable = transpositionTable;
+        this.mainSearch = new Search(transpositionTable);
+        setThreads(threads);
+    }
+
+    public void setThreads(int threads) {
+        shutdown();
+        helpers.clear();
+        int helperCount = Math.max(1, threads) - 1;
+        for (int i = 0; i < helperCount; i++) {
+            Search helper = new Search(transpositionTable);
+            helper.setBitbases(bitbases);
+            helpers.add(helper);
+        }
+        helperPool = helperCount > 0 ? Executors.newFixedThreadPool(helperCount, runnable -> {
+            Thread thread = new Thread(runnable, "lazy-smp-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public int getThreads() {
+        return helpers.size() + 1;
+    }
+
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+        mainSearch.setBitbases(bitbases);
+        for (Search helper : helpers) {
+            helper.setBitbases(bitbases);
+        }
+    }
+
+    public void setIterationListener(Consumer<SearchResult> iterationListener) {
+        mainSearch.setIterationListener(iterationListener);
+    }
+
+    public void stop() {
+        mainSearch.stop();
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+    }
+
+    // The board is only read by this thread; every helper gets its own copy because Board keeps
+    // mutable per-game state (turn, pending promotion, status message, undo stack).
+    public SearchResult search(Board board, SearchLimits limits) {
+        transpositionTable.newSearch();
+        mainSearch.clearStopRequest();
+
+        // Helpers run without a depth limit and are stopped by the main thread.
+        SearchLimits helperLimits = new SearchLimits(SearchLimits.MAX_DEPTH, 0, limits.getTimeMillis());
+        List<Future<SearchResult>> running = new ArrayList<>(helpers.size());
+        for (int i = 0; i < helpers.size(); i++) {
+            Search helper = helpers.get(i);
+            helper.clearStopRequest();
+            Board helperBoard = board.deepCopy();
+            // Odd helpers start one ply deeper so the threads do not all walk the same depth in step.
+            int firstDepth = 1 + ((i + 1) & 1);
+            running.add(helperPool.submit(() -> helper.runIterations(helperBoard, helperLimits, firstDepth)));
+        }
+
+        SearchResult result = mainSearch.runIterations(board, limits, 1);
+
+        long totalNodes = mainSearch.getNodes();
+        for (Search helper : helpers) {
+            helper.stop();
+        }
+        for (int i = 0; i < running.size(); i++) {
+            try {
+                running.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed.", e.getCause());
+            }
+            totalNodes += helpers.get(i).getNodes();
+        }
+
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(),
+                result.getPrincipalVariation(), totalNodes, result.getElapsedMillis(), result.getTimeToDepthMillis());
+    }
+
+    // Pawn hash hit rate over every thread's table since they were created; read between searches.
+    public double getPawnHashHitRate() {
+        long probes = mainSearch.getPawnTable().getProbes();
+        long hits = mainSearch.getPawnTable().getHits();
+        for (Search helper : helpers) {
+            probes += helper.getPawnTable().getProbes();
+            hits += helper.getPawnTable().getHits();
+        }
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+            helperPool = null;
+        }
+    }
+}
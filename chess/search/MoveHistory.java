@@ -0,0 +1,72 @@
+package search;
+
+import core.Board;
+import core.Move;
+
+import java.util.Arrays;
+
+// Quiet-move ordering statistics of one search thread, all in flat primitive arrays:
+// two killer moves per ply, a history score per (side, from, to) and a counter-move per
+// (from, to) of the opponent's previous move.
+final class MoveHistory {
+    // History scores saturate towards +-MAX_HISTORY, staying below the killer and capture ranges.
+    static final int MAX_HISTORY = 1 << 14;
+
+    private final int[] killers = new int[(Board.MAX_PLY + 1) * 2];
+    private final int[] history = new int[2 * 64 * 64];
+    private final int[] counterMoves = new int[64 * 64];
+
+    // Killers belong to the previous search's plies; history and counter-moves carry over, halved.
+    void newSearch() {
+        Arrays.fill(killers, Move.NONE);
+        for (int i = 0; i < history.length; i++) {
+            history[i] /= 2;
+        }
+    }
+
+    int killer(int ply, int slot) {
+        return killers[ply * 2 + slot];
+    }
+
+    int history(int color, int move) {
+        return history[historyIndex(color, move)];
+    }
+
+    int counterMove(int previousMove) {
+        return previousMove == Move.NONE ? Move.NONE : counterMoves[fromTo(previousMove)];
+    }
+
+    // Records a beta cutoff by the quiet move moves[cutoff]; the quiet moves searched before it in
+    // moves[0..cutoff) lose the history it gains.
+    void quietCutoff(int color, int ply, int previousMove, int depth, int[] moves, int cutoff) {
+        int move = moves[cutoff];
+        if (killers[ply * 2] != move) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = move;
+        }
+        if (previousMove != Move.NONE) {
+            counterMoves[fromTo(previousMove)] = move;
+        }
+
+        int bonus = Math.min(depth * depth, MAX_HISTORY / 4);
+        update(historyIndex(color, move), bonus);
+        for (int i = 0; i < cutoff; i++) {
+            if (!MovePicker.isTactical(moves[i])) {
+                update(historyIndex(color, moves[i]), -bonus);
+            }
+        }
+    }
+
+    // Moves the entry towards +-MAX_HISTORY by the bonus, less as it gets closer, so it never overflows.
+    private void update(int index, int bonus) {
+        history[index] += bonus - history[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int historyIndex(int color, int move) {
+        return color * 64 * 64 + fromTo(move);
+    }
+
+    private static int fromTo(int move) {
+        return Move.from(move) * 64 + Move.to(move);
+    }
+}
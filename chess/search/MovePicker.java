@@ -0,0 +1,223 @@
+package search;
+
+import core.Board;
+import core.Move;
+import pieces.PieceType;
+
+// Staged, lazy move ordering over a node's legal move list: the hash move, then captures and queen
+// promotions by MVV-LVA that do not lose material by SEE, then the two killers, then the remaining
+// quiet moves by history plus a counter-move bonus, and finally the losing captures. Each stage is
+// only scored when the search gets to it, and each move is found by a selection pass over what is
+// left, so a node that cuts off early sorts almost nothing. Moves are swapped in place, so until the
+// losing captures come back moves[0..next) holds the moves returned so far, in order.
+// In quiescence mode only the winning and equal tactical moves are returned.
+final class MovePicker {
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_SCORE_CAPTURES = 1;
+    private static final int STAGE_CAPTURES = 2;
+    private static final int STAGE_KILLERS = 3;
+    private static final int STAGE_SCORE_QUIETS = 4;
+    private static final int STAGE_QUIETS = 5;
+    private static final int STAGE_BAD_CAPTURES = 6;
+    private static final int STAGE_DONE = 7;
+
+    // Victim values for MVV-LVA; the attacker's type ordinal breaks ties, cheapest first.
+    private static final int[] VICTIM_VALUES = {100, 300, 300, 500, 900, 0};
+    private static final int PROMOTION_BONUS = 800;
+    private static final int COUNTER_MOVE_BONUS = MoveHistory.MAX_HISTORY;
+    // Underpromotions go after every other quiet move.
+    private static final int UNDERPROMOTION_SCORE = -4 * MoveHistory.MAX_HISTORY;
+
+    private final int[] scores = new int[Board.MAX_MOVES];
+    // Captures that lose material by SEE, taken out of the move list and returned last.
+    private final int[] badCaptures = new int[Board.MAX_MOVES];
+    private final MoveHistory history;
+
+    private Board board;
+    private int[] moves;
+    private int count;
+    private int stage;
+    private int next;
+    private int captureEnd;
+    private int killerSlot;
+    private int badCaptureCount;
+    private int badCaptureNext;
+    private boolean quiescence;
+    private int hashMove;
+    private int ply;
+    private int previousMove;
+
+    MovePicker(MoveHistory history) {
+        this.history = history;
+    }
+
+    void init(Board board, int[] moves, int count, int hashMove, int ply, int previousMove) {
+        this.board = board;
+        this.moves = moves;
+        this.count = count;
+        this.hashMove = hashMove;
+        this.ply = ply;
+        this.previousMove = previousMove;
+        this.stage = STAGE_HASH;
+        this.next = 0;
+        this.killerSlot = 0;
+        this.badCaptureCount = 0;
+        this.badCaptureNext = 0;
+        this.quiescence = false;
+    }
+
+    // Quiescence mode: no hash move, killers or quiet moves, and losing captures are dropped.
+    void initQuiescence(Board board, int[] moves, int count) {
+        init(board, moves, count, Move.NONE, 0, Move.NONE);
+        this.quiescence = true;
+    }
+
+    // The next move to search, or Move.NONE when every move has been returned.
+    int next() {
+        switch (stage) {
+            case STAGE_HASH -> {
+                stage = STAGE_SCORE_CAPTURES;
+                if (hashMove != Move.NONE && bringToNext(hashMove)) {
+                    return moves[next++];
+                }
+                return next();
+            }
+            case STAGE_SCORE_CAPTURES -> {
+                scoreCaptures();
+                stage = STAGE_CAPTURES;
+                return next();
+            }
+            case STAGE_CAPTURES -> {
+                while (next < captureEnd) {
+                    int move = selectBest(captureEnd);
+                    if (StaticExchange.isAtLeast(board, move, 0)) {
+                        return move;
+                    }
+                    deferLastCapture(move);
+                }
+                stage = quiescence ? STAGE_DONE : STAGE_KILLERS;
+                return next();
+            }
+            case STAGE_KILLERS -> {
+                while (killerSlot < 2) {
+                    int killer = history.killer(ply, killerSlot++);
+                    if (killer != Move.NONE && bringToNext(killer)) {
+                        return moves[next++];
+                    }
+                }
+                stage = STAGE_SCORE_QUIETS;
+                return next();
+            }
+            case STAGE_SCORE_QUIETS -> {
+                scoreQuiets();
+                stage = STAGE_QUIETS;
+                return next();
+            }
+            case STAGE_QUIETS -> {
+                if (next < count) {
+                    return selectBest(count);
+                }
+                stage = STAGE_BAD_CAPTURES;
+                return next();
+            }
+            case STAGE_BAD_CAPTURES -> {
+                if (badCaptureNext < badCaptureCount) {
+                    return badCaptures[badCaptureNext++];
+                }
+                stage = STAGE_DONE;
+                return Move.NONE;
+            }
+            default -> {
+                return Move.NONE;
+            }
+        }
+    }
+
+    // Captures and queen promotions, which are ordered before the killers.
+    static boolean isTactical(int move) {
+        return Move.isCapture(move) || Move.promotionType(move) == PieceType.QUEEN.ordinal();
+    }
+
+    // Swaps the move into position next if it is among the moves not yet returned.
+    private boolean bringToNext(int move) {
+        for (int i = next; i < count; i++) {
+            if (moves[i] == move) {
+                moves[i] = moves[next];
+                moves[next] = move;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Partitions the unreturned moves so the tactical ones come first and scores them.
+    private void scoreCaptures() {
+        int end = next;
+        for (int i = next; i < count; i++) {
+            int move = moves[i];
+            if (isTactical(move)) {
+                moves[i] = moves[end];
+                moves[end] = move;
+                scores[end++] = captureScore(move);
+            }
+        }
+        captureEnd = end;
+    }
+
+    private int captureScore(int move) {
+        int score = 0;
+        if (Move.isCapture(move)) {
+            PieceType victim = Move.isEnPassant(move) ? PieceType.PAWN : board.getPieceType(Move.to(move));
+            score = VICTIM_VALUES[victim.ordinal()] * 8 - board.getPieceType(Move.from(move)).ordinal();
+        }
+        if (Move.promotionType(move) == PieceType.QUEEN.ordinal()) {
+            score += PROMOTION_BONUS * 8;
+        }
+        return score;
+    }
+
+    private void scoreQuiets() {
+        int color = board.getCurrentTurn().ordinal();
+        int counterMove = history.counterMove(previousMove);
+        for (int i = next; i < count; i++) {
+            int move = moves[i];
+            if (Move.isPromotion(move)) {
+                scores[i] = UNDERPROMOTION_SCORE;
+            } else {
+                scores[i] = history.history(color, move) + (move == counterMove ? COUNTER_MOVE_BONUS : 0);
+            }
+        }
+    }
+
+    // Takes the capture just selected at next - 1 out of the list: the last unreturned capture fills
+    // its slot and the last quiet move fills that one, keeping both regions contiguous.
+    private void deferLastCapture(int move) {
+        next--;
+        moves[next] = moves[captureEnd - 1];
+        scores[next] = scores[captureEnd - 1];
+        moves[captureEnd - 1] = moves[count - 1];
+        captureEnd--;
+        count--;
+        if (!quiescence) {
+            badCaptures[badCaptureCount++] = move;
+        }
+    }
+
+    // Selection step: moves the best-scored move of moves[next..end) to next and returns it.
+    private int selectBest(int end) {
+        int best = next;
+        for (int i = next + 1; i < end; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        int score = scores[best];
+        moves[best] = moves[next];
+        scores[best] = scores[next];
+        moves[next] = move;
+        scores[next] = score;
+        next++;
+        return move;
+    }
+}
@@ -0,0 +1,95 @@
+package search;
+
+import core.Bitboards;
+import core.Board;
+import pieces.PieceColor;
+import pieces.PieceType;
+
+import java.util.Arrays;
+
+// Per-thread cache of PawnStructure results keyed by Board.getPawnKey(). Direct-mapped and lossy:
+// a new pawn structure simply overwrites its slot. Pawns move rarely compared to other pieces, so
+// most evaluations find their structure here. Not thread-safe; every Search owns one.
+public final class PawnHashTable {
+    public static final int DEFAULT_ENTRIES = 1 << 14;
+
+    private final long[] keys;
+    // Middlegame score in the high half, endgame score in the low half.
+    private final long[] scores;
+    // White shield counts in the low half, black in the high half.
+    private final long[] shields;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    // Rounds the entry count down to a power of two.
+    public PawnHashTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        scores = new long[size];
+        shields = new long[size];
+        mask = size - 1;
+    }
+
+    // Returns the slot holding the board's pawn evaluation, computing it on a miss. Key 0 (no pawns)
+    // matches the empty slots, whose all-zero scores are exactly right for a pawnless board.
+    int probe(Board board) {
+        long key = board.getPawnKey();
+        int slot = (int) key & mask;
+        probes++;
+        if (keys[slot] == key) {
+            hits++;
+            return slot;
+        }
+
+        long whitePawns = board.getPieceBitboard(PieceColor.WHITE, PieceType.PAWN);
+        long blackPawns = board.getPieceBitboard(PieceColor.BLACK, PieceType.PAWN);
+        keys[slot] = key;
+        scores[slot] = PawnStructure.score(whitePawns, blackPawns);
+        shields[slot] = (PawnStructure.shields(Bitboards.WHITE, whitePawns) & 0xFFFFFFFFL)
+                | (long) PawnStructure.shields(Bitboards.BLACK, blackPawns) << 32;
+        return slot;
+    }
+
+    int middlegame(int slot) {
+        return (int) (scores[slot] >> 32);
+    }
+
+    int endgame(int slot) {
+        return (int) scores[slot];
+    }
+
+    // Shield count for a king of the given color on the given file.
+    int shield(int slot, int color, int file) {
+        return (int) (shields[slot] >>> (color * 32 + file * PawnStructure.SHIELD_BITS)) & ((1 << PawnStructure.SHIELD_BITS) - 1);
+    }
+
+    static long pack(int middlegame, int endgame) {
+        return (long) middlegame << 32 | (endgame & 0xFFFFFFFFL);
+    }
+
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public double getHitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    public void resetStatistics() {
+        probes = 0;
+        hits = 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(scores, 0L);
+        Arrays.fill(shields, 0L);
+        resetStatistics();
+    }
+}
@@ -0,0 +1,144 @@
+package search;
+
+import core.Bitboards;
+
+// Pawn-structure terms computed from the two pawn bitboards alone, so PawnHashTable can cache them
+// by pawn key: passed, isolated, doubled and backward pawns, plus a king-shield count per king file.
+// Scores are from White's side; white pawns advance toward row 0.
+final class PawnStructure {
+    // Indexed by relative rank (0 = own back rank, 7 = promotion rank).
+    private static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 15, 30, 50, 80, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+    private static final int ISOLATED_MIDDLEGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    private static final int DOUBLED_MIDDLEGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int BACKWARD_MIDDLEGAME = -8;
+    private static final int BACKWARD_ENDGAME = -10;
+
+    // Shield counts fit four bits: at most three files worth two each.
+    static final int SHIELD_BITS = 4;
+    private static final int SHIELD_NEAR = 2;
+    private static final int SHIELD_FAR = 1;
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Per color and square: squares ahead on the same file; ahead on the same and adjacent files;
+    // on adjacent files level with or behind the square (where supporting pawns stand).
+    private static final long[][] AHEAD = new long[2][64];
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    private static final long[][] SUPPORT_SPAN = new long[2][64];
+    // Per color and king file: the three files in front of a castled king, one and two rows ahead.
+    private static final long[][] SHIELD_NEAR_ZONE = new long[2][8];
+    private static final long[][] SHIELD_FAR_ZONE = new long[2][8];
+
+    static {
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                FILES[y] |= Bitboards.bit(Bitboards.square(x, y));
+            }
+        }
+        for (int y = 0; y < 8; y++) {
+            ADJACENT_FILES[y] = (y > 0 ? FILES[y - 1] : 0L) | (y < 7 ? FILES[y + 1] : 0L);
+            long shieldFiles = FILES[y] | ADJACENT_FILES[y];
+            SHIELD_NEAR_ZONE[Bitboards.WHITE][y] = shieldFiles & row(6);
+            SHIELD_FAR_ZONE[Bitboards.WHITE][y] = shieldFiles & row(5);
+            SHIELD_NEAR_ZONE[Bitboards.BLACK][y] = shieldFiles & row(1);
+            SHIELD_FAR_ZONE[Bitboards.BLACK][y] = shieldFiles & row(2);
+        }
+        for (int square = 0; square < 64; square++) {
+            int x = Bitboards.squareX(square);
+            int y = Bitboards.squareY(square);
+            for (int other = 0; other < 64; other++) {
+                int otherX = Bitboards.squareX(other);
+                int otherY = Bitboards.squareY(other);
+                long bit = Bitboards.bit(other);
+                boolean sameOrAdjacent = Math.abs(otherY - y) <= 1;
+                boolean adjacent = Math.abs(otherY - y) == 1;
+                if (otherX < x) {
+                    AHEAD[Bitboards.WHITE][square] |= otherY == y ? bit : 0L;
+                    PASSED_SPAN[Bitboards.WHITE][square] |= sameOrAdjacent ? bit : 0L;
+                } else if (otherX > x) {
+                    AHEAD[Bitboards.BLACK][square] |= otherY == y ? bit : 0L;
+                    PASSED_SPAN[Bitboards.BLACK][square] |= sameOrAdjacent ? bit : 0L;
+                }
+                if (adjacent && otherX >= x) {
+                    SUPPORT_SPAN[Bitboards.WHITE][square] |= bit;
+                }
+                if (adjacent && otherX <= x) {
+                    SUPPORT_SPAN[Bitboards.BLACK][square] |= bit;
+                }
+            }
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    private static long row(int x) {
+        return 0xFFL << (x * 8);
+    }
+
+    // Middlegame and endgame pawn scores from White's side, packed as in PawnHashTable.
+    static long score(long whitePawns, long blackPawns) {
+        int middlegame = 0;
+        int endgame = 0;
+        for (int color = Bitboards.WHITE; color <= Bitboards.BLACK; color++) {
+            long own = color == Bitboards.WHITE ? whitePawns : blackPawns;
+            long enemy = color == Bitboards.WHITE ? blackPawns : whitePawns;
+            int sideMiddlegame = 0;
+            int sideEndgame = 0;
+
+            long pawns = own;
+            while (pawns != 0) {
+                int square = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+                int y = Bitboards.squareY(square);
+                int relativeRank = color == Bitboards.WHITE ? 7 - Bitboards.squareX(square) : Bitboards.squareX(square);
+
+                if ((PASSED_SPAN[color][square] & enemy) == 0 && (AHEAD[color][square] & own) == 0) {
+                    sideMiddlegame += PASSED_MIDDLEGAME[relativeRank];
+                    sideEndgame += PASSED_ENDGAME[relativeRank];
+                }
+                if ((AHEAD[color][square] & own) != 0) {
+                    sideMiddlegame += DOUBLED_MIDDLEGAME;
+                    sideEndgame += DOUBLED_ENDGAME;
+                }
+                if ((ADJACENT_FILES[y] & own) == 0) {
+                    sideMiddlegame += ISOLATED_MIDDLEGAME;
+                    sideEndgame += ISOLATED_ENDGAME;
+                } else if ((SUPPORT_SPAN[color][square] & own) == 0 && relativeRank < 6) {
+                    // No pawn can ever defend it, and an enemy pawn guards the square in front.
+                    int stop = color == Bitboards.WHITE ? square - 8 : square + 8;
+                    if ((Bitboards.pawnAttacks(color, stop) & enemy) != 0) {
+                        sideMiddlegame += BACKWARD_MIDDLEGAME;
+                        sideEndgame += BACKWARD_ENDGAME;
+                    }
+                }
+            }
+
+            middlegame += color == Bitboards.WHITE ? sideMiddlegame : -sideMiddlegame;
+            endgame += color == Bitboards.WHITE ? sideEndgame : -sideEndgame;
+        }
+        return PawnHashTable.pack(middlegame, endgame);
+    }
+
+    // Shield counts for every king file of one color, SHIELD_BITS per file with file 0 lowest.
+    static int shields(int color, long own) {
+        int packed = 0;
+        for (int y = 0; y < 8; y++) {
+            int count = 0;
+            long near = own & SHIELD_NEAR_ZONE[color][y];
+            long far = own & SHIELD_FAR_ZONE[color][y];
+            for (int file = Math.max(0, y - 1); file <= Math.min(7, y + 1); file++) {
+                if ((near & FILES[file]) != 0) {
+                    count += SHIELD_NEAR;
+                } else if ((far & FILES[file]) != 0) {
+                    count += SHIELD_FAR;
+                }
+            }
+            packed |= count << (y * SHIELD_BITS);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,406 @@
+package search;
+
+import core.Bitboards;
+import core.Board;
+import core.Move;
+import endgame.Bitbases;
+import pieces.PieceColor;
+import pieces.PieceType;
+
+import java.util.function.Consumer;
+
+// Iterative-deepening principal variation search over core.Board.
+// One Search instance belongs to one thread; the transposition table may be shared.
+public class Search {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    private static final int MAX_MATE_PLY = Board.MAX_PLY;
+    // Bitbase wins score above any material balance but below every mate score.
+    public static final int KNOWN_WIN = 20000;
+
+    private static final int CHECK_INTERVAL_MASK = 1023;
+    // Positional slack allowed on top of a capture's material before delta pruning skips it.
+    private static final int DELTA_MARGIN = 200;
+
+    private final TranspositionTable transpositionTable;
+    private final int[][] moveBuffers = new int[Board.MAX_PLY + 1][Board.MAX_MOVES];
+    private final int[][] pvTable = new int[Board.MAX_PLY + 1][Board.MAX_PLY + 1];
+    private final int[] pvLength = new int[Board.MAX_PLY + 1];
+    private final PawnHashTable pawnTable = new PawnHashTable(PawnHashTable.DEFAULT_ENTRIES);
+    private final MoveHistory moveHistory = new MoveHistory();
+    private final MovePicker[] movePickers = new MovePicker[Board.MAX_PLY + 1];
+    // Move made at each ply on the current path, for counter-move lookups one ply deeper.
+    private final int[] pathMoves = new int[Board.MAX_PLY + 1];
+
+    private Board board;
+    private long nodes;
+    private long nodeLimit;
+    private long deadlineNanos;
+    private long startNanos;
+    private volatile boolean stopRequested;
+    private boolean aborted;
+    private Consumer<SearchResult> iterationListener;
+    private Bitbases bitbases;
+    // Set when the root itself is in a table; see searchNode.
+    private boolean rootInBitbase;
+
+    public Search(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        for (int ply = 0; ply < movePickers.length; ply++) {
+            movePickers[ply] = new MovePicker(moveHistory);
+        }
+    }
+
+    // Called after every completed depth, e.g. to print progress.
+    public void setIterationListener(Consumer<SearchResult> iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    // Endgame tables probed below the root; null disables probing.
+    public void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    // Asks a running search to return as soon as possible; safe to call from another thread.
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public PawnHashTable getPawnTable() {
+        return pawnTable;
+    }
+
+    // Searches the position on the board, which is left unchanged. Returns the result of the
+    // deepest fully completed iteration (or the first legal move if not even depth 1 finished).
+    public SearchResult search(Board board, SearchLimits limits) {
+        stopRequested = false;
+        transpositionTable.newSearch();
+        return iterate(board, limits, 1);
+    }
+
+    // Used by LazySmpSearch: neither ages the shared table nor clears a pending stop request.
+    SearchResult runIterations(Board board, SearchLimits limits, int firstDepth) {
+        return iterate(board, limits, firstDepth);
+    }
+
+    void clearStopRequest() {
+        stopRequested = false;
+    }
+
+    private SearchResult iterate(Board board, SearchLimits limits, int firstDepth) {
+        this.board = board;
+        this.nodes = 0;
+        this.nodeLimit = limits.getNodes();
+        this.startNanos = System.nanoTime();
+        this.deadlineNanos = limits.getTimeMillis() > 0 ? startNanos + limits.getTimeMillis() * 1_000_000L : 0;
+        this.aborted = false;
+        this.rootInBitbase = bitbases != null && bitbases.probe(board) != Bitbases.NOT_FOUND;
+        moveHistory.newSearch();
+
+        long[] timeToDepth = new long[limits.getDepth() + 1];
+        SearchResult result = null;
+
+        int[] rootMoves = moveBuffers[0];
+        int rootMoveCount = board.generateLegalMoves(rootMoves);
+        if (rootMoveCount == 0) {
+            int score = board.isInCheck() ? -MATE : 0;
+            return new SearchResult(Move.NONE, score, 0, new int[0], 0, 0, timeToDepth);
+        }
+
+        for (int depth = Math.min(firstDepth, limits.getDepth()); depth <= limits.getDepth(); depth++) {
+            int score = searchNode(depth, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            timeToDepth[depth] = elapsedMillis;
+            int[] pv = new int[pvLength[0]];
+            System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+            result = new SearchResult(pv.length > 0 ? pv[0] : rootMoves[0], score, depth, pv,
+                    nodes, elapsedMillis, copyTimes(timeToDepth, depth));
+
+            if (iterationListener != null) {
+                iterationListener.accept(result);
+            }
+            if (isMateScore(score) && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+        }
+
+        if (result == null) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+            result = new SearchResult(rootMoves[0], 0, 0, new int[]{rootMoves[0]}, nodes, elapsedMillis, new long[1]);
+        }
+        return result;
+    }
+
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE - MAX_MATE_PLY;
+    }
+
+    private int searchNode(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+
+        if (ply > 0 && (shouldStop() || ply >= Board.MAX_PLY - 1)) {
+            return Evaluation.evaluate(board, pawnTable);
+        }
+
+        // Draws by rule end the line; a single repetition counts, as the side that repeated can do it again.
+        // As in Board, a mate delivered on the move that reaches the fifty-move limit still wins.
+        if (ply > 0 && (board.isRepetition() || board.isInsufficientMaterial()
+                || (board.getHalfmoveClock() >= Board.FIFTY_MOVE_PLIES
+                && (!board.isInCheck() || board.generateLegalMoves(moveBuffers[ply]) > 0)))) {
+            nodes++;
+            return 0;
+        }
+
+        // Table draws are exact and always end the line. A win or loss ends it when the line enters a
+        // table from a root outside them. From a root already in a table the search has to find the
+        // real mate, so the table score only replaces the evaluation at the horizon.
+        if (ply > 0 && bitbases != null) {
+            int result = bitbases.probe(board);
+            if (result == Bitbases.DRAW || (result != Bitbases.NOT_FOUND && (!rootInBitbase || depth <= 0))) {
+                nodes++;
+                return bitbaseScore(result);
+            }
+        }
+
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        nodes++;
+        long key = board.getZobristKey();
+        int hashMove = Move.NONE;
+        long entry = transpositionTable.probe(key);
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int hashScore = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && hashScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && hashScore <= alpha)) {
+                    return hashScore;
+                }
+            }
+        }
+
+        int[] moves = moveBuffers[ply];
+        int moveCount = board.generateLegalMoves(moves);
+        if (moveCount == 0) {
+            return board.isInCheck() ? -MATE + ply : 0;
+        }
+        int previousMove = ply > 0 ? pathMoves[ply - 1] : Move.NONE;
+        MovePicker picker = movePickers[ply];
+        picker.init(board, moves, moveCount, hashMove, ply, previousMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+
+        for (int move = picker.next(), searched = 0; move != Move.NONE; move = picker.next(), searched++) {
+            pathMoves[ply] = move;
+            board.makeMove(move);
+            int score;
+            if (searched == 0) {
+                score = -searchNode(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                score = -searchNode(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -searchNode(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            board.unmakeMove();
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (!MovePicker.isTactical(move)) {
+                            moveHistory.quietCutoff(board.getCurrentTurn().ordinal(), ply, previousMove, depth,
+                                    moves, searched);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+                : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT
+                : TranspositionTable.BOUND_UPPER;
+        transpositionTable.store(key, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    // Searches captures and queen promotions (every move when in check) until the position is quiet,
+    // so leaf scores are not taken in the middle of an exchange. The side to move may stand pat on
+    // the static evaluation. Captures that lose material by SEE are never generated by the picker,
+    // and captures that could not reach alpha even winning their victim outright are skipped
+    // (delta pruning).
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = 0;
+        nodes++;
+        if (shouldStop() || ply >= Board.MAX_PLY - 1) {
+            return Evaluation.evaluate(board, pawnTable);
+        }
+
+        boolean inCheck = board.isInCheck();
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = Evaluation.evaluate(board, pawnTable);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        int[] moves = moveBuffers[ply];
+        int moveCount = board.generateLegalMoves(moves);
+        if (moveCount == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        MovePicker picker = movePickers[ply];
+        if (inCheck) {
+            picker.init(board, moves, moveCount, Move.NONE, ply, Move.NONE);
+        } else {
+            picker.initQuiescence(board, moves, moveCount);
+        }
+
+        int standPat = bestScore;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            if (!inCheck && !Move.isPromotion(move)
+                    && standPat + StaticExchange.captureValue(board, move) + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+
+            if (aborted) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // Won positions are ranked by progress towards mate, so a search that cannot see the mate yet
+    // still heads for it: the attacking king close to the defending one, and then
+    // - KPK: the pawn advanced. KPK scores stay below every KQK score, so promoting is progress.
+    // - KBNK: the defending king near a corner of the bishop's color, the only corners it can be mated in.
+    // - KQK, KRK: the defending king near any edge.
+    private int bitbaseScore(int result) {
+        if (result == Bitbases.DRAW) {
+            return 0;
+        }
+        PieceColor strong = result == Bitbases.WIN ? board.getCurrentTurn()
+                : board.getCurrentTurn() == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        PieceColor weak = strong == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        int weakKing = board.getKingSquare(weak);
+        int strongKing = board.getKingSquare(strong);
+        int weakX = Bitboards.squareX(weakKing);
+        int weakY = Bitboards.squareY(weakKing);
+        int kingDistance = Math.max(Math.abs(weakX - Bitboards.squareX(strongKing)),
+                Math.abs(weakY - Bitboards.squareY(strongKing)));
+        int score = KNOWN_WIN - 5 * kingDistance;
+
+        long pawns = board.getPieceBitboard(strong, PieceType.PAWN);
+        long bishops = board.getPieceBitboard(strong, PieceType.BISHOP);
+        if (pawns != 0) {
+            int pawnX = Bitboards.squareX(Long.numberOfTrailingZeros(pawns));
+            int advance = strong == PieceColor.WHITE ? 6 - pawnX : pawnX - 1;
+            score += 20 * advance - 200;
+        } else if (bishops != 0) {
+            int bishop = Long.numberOfTrailingZeros(bishops);
+            // a8 and h1 share the color of squares with an even x + y.
+            boolean lightBishop = ((Bitboards.squareX(bishop) + Bitboards.squareY(bishop)) & 1) == 0;
+            int cornerDistance = lightBishop
+                    ? Math.min(distance(weakX, weakY, 0, 0), distance(weakX, weakY, 7, 7))
+                    : Math.min(distance(weakX, weakY, 0, 7), distance(weakX, weakY, 7, 0));
+            score -= 20 * cornerDistance;
+        } else {
+            int edgeDistance = Math.min(Math.min(weakX, 7 - weakX), Math.min(weakY, 7 - weakY));
+            score -= 20 * edgeDistance;
+        }
+        return result == Bitbases.WIN ? score : -score;
+    }
+
+    private static int distance(int x, int y, int otherX, int otherY) {
+        return Math.max(Math.abs(x - otherX), Math.abs(y - otherY));
+    }
+
+    private boolean shouldStop() {
+        if (aborted) {
+            return true;
+        }
+        // The stop flag is a cheap volatile read, so it is polled on every node and an external stop
+        // lands within microseconds; only the clock is sampled periodically.
+        if (stopRequested) {
+            aborted = true;
+        } else if ((nodes & CHECK_INTERVAL_MASK) == 0) {
+            if ((nodeLimit > 0 && nodes >= nodeLimit)
+                    || (deadlineNanos != 0 && System.nanoTime() >= deadlineNanos)) {
+                aborted = true;
+            }
+        } else if (nodeLimit > 0 && nodes >= nodeLimit) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pvTable[ply][0] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, childLength);
+        pvLength[ply] = childLength + 1;
+    }
+
+    // Mate scores are stored relative to the node so they stay valid at other plies.
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_MATE_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_MATE_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_MATE_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_MATE_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private static long[] copyTimes(long[] times, int depth) {
+        long[] copy = new long[depth + 1];
+        System.arraycopy(times, 0, copy, 0, depth + 1);
+        return copy;
+    }
+}
@@ -0,0 +1,77 @@
+package search;
+
+import core.Move;
+
+// Outcome of a completed search iteration.
+public class SearchResult {
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final int[] principalVariation;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final long[] timeToDepthMillis;
+
+    public SearchResult(int bestMove, int score, int depth, int[] principalVariation,
+                        long nodes, long elapsedMillis, long[] timeToDepthMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.principalVariation = principalVariation;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.timeToDepthMillis = timeToDepthMillis;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    // Centipawns from the side to move's point of view, or a mate score (see Search.isMateScore).
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Zero until a full millisecond has passed; the node count alone is not a rate.
+    public long getNodesPerSecond() {
+        return elapsedMillis > 0 ? nodes * 1000 / elapsedMillis : 0;
+    }
+
+    // Milliseconds from the start of the search until each depth (index) was completed.
+    public long[] getTimeToDepthMillis() {
+        return timeToDepthMillis;
+    }
+
+    public String principalVariationString() {
+        StringBuilder builder = new StringBuilder();
+        for (int move : principalVariation) {
+            if (builder.length() > 0) {
+                builder.append(' ');
+            }
+            builder.append(Move.toUci(move));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " score " + score + " nodes " + nodes + " nps " + getNodesPerSecond()
+                + " time " + elapsedMillis + " pv " + principalVariationString();
+    }
+}
@@ -0,0 +1,93 @@
+package search;
+
+import core.Bitboards;
+import core.Board;
+import core.Move;
+import pieces.PieceColor;
+import pieces.PieceType;
+
+// Static exchange evaluation: the material outcome of the capture sequence a move starts on its
+// target square, each side recapturing with its least valuable attacker and free to stop when
+// continuing would lose material. Sliders uncovered behind a capturing piece join in because
+// attackers are recomputed against the shrinking occupancy. Pins and checks are ignored.
+final class StaticExchange {
+    static final int[] VALUES = {100, 300, 300, 500, 900, 20000};
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final PieceColor[] COLORS = PieceColor.values();
+
+    private StaticExchange() {
+    }
+
+    // Material the move captures directly (a promotion counts as winning the pawn's upgrade).
+    static int captureValue(Board board, int move) {
+        int value = 0;
+        if (Move.isEnPassant(move)) {
+            value = VALUES[PieceType.PAWN.ordinal()];
+        } else if (Move.isCapture(move)) {
+            value = VALUES[board.getPieceType(Move.to(move)).ordinal()];
+        }
+        if (Move.isPromotion(move)) {
+            value += VALUES[Move.promotionType(move)] - VALUES[PieceType.PAWN.ordinal()];
+        }
+        return value;
+    }
+
+    // True when the exchange started by the move wins at least threshold for the side making it.
+    static boolean isAtLeast(Board board, int move, int threshold) {
+        // Promotions and castling are left to the search.
+        if (Move.isPromotion(move) || Move.isCastling(move)) {
+            return 0 >= threshold;
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        int swap = captureValue(board, move) - threshold;
+        if (swap < 0) {
+            return false;
+        }
+        swap = VALUES[board.getPieceType(from).ordinal()] - swap;
+        if (swap <= 0) {
+            return true;
+        }
+
+        long occupied = board.getOccupancy() ^ Bitboards.bit(from) ^ Bitboards.bit(to);
+        if (Move.isEnPassant(move)) {
+            occupied ^= Bitboards.bit(board.getEnPassantPawnSquare());
+        }
+        int side = board.getCurrentTurn().ordinal();
+        // 1 while the side that made the move is winning the exchange as it stands.
+        int result = 1;
+
+        while (true) {
+            side ^= 1;
+            long attackers = board.getAttackers(to, occupied) & occupied;
+            long sideAttackers = attackers & board.getOccupancy(COLORS[side]);
+            if (sideAttackers == 0) {
+                break;
+            }
+            result ^= 1;
+
+            int type = 0;
+            long attacker = 0;
+            for (; type < TYPES.length; type++) {
+                attacker = sideAttackers & board.getPieceBitboard(COLORS[side], TYPES[type]);
+                if (attacker != 0) {
+                    break;
+                }
+            }
+            if (type == PieceType.KING.ordinal()) {
+                // The king may only recapture when the square is no longer defended.
+                if ((attackers & ~board.getOccupancy(COLORS[side])) != 0) {
+                    result ^= 1;
+                }
+                break;
+            }
+            swap = VALUES[type] - swap;
+            if (swap < result) {
+                break;
+            }
+            occupied ^= Long.lowestOneBit(attacker);
+        }
+        return result == 1;
+    }
+}
@@ -0,0 +1,203 @@
+package search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Shared, lock-free transposition table.
+// Every slot is two longs: (key ^ data, data). A reader only trusts a slot when the XOR of the two
+// words gives back its key, so a slot torn by two threads writing at once reads as a miss
+// instead of returning another position's data.
+// Slots are grouped in buckets of four (64 bytes) for the replacement policy; a Java long[] has no
+// alignment guarantee, so a bucket may straddle two cache lines.
+public class TranspositionTable {
+    public static final int BOUND_LOWER = 1;
+    public static final int BOUND_UPPER = 2;
+    public static final int BOUND_EXACT = 3;
+
+    private static final int SLOT_LONGS = 2;
+    private static final int BUCKET_SLOTS = 4;
+    private static final int BUCKET_LONGS = SLOT_LONGS * BUCKET_SLOTS;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+
+    // Data word layout.
+    private static final int MOVE_BITS = 20;
+    private static final int SCORE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 36;
+    private static final int BOUND_SHIFT = 44;
+    private static final int GENERATION_SHIFT = 46;
+
+    private long[] table;
+    private long bucketMask;
+    private volatile int generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public TranspositionTable(int sizeMb) {
+        resize(sizeMb);
+    }
+
+    // Rounds down to a power-of-two number of buckets; not safe while searches are running.
+    public void resize(int sizeMb) {
+        long bytes = Math.max(1L, sizeMb) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(Math.max(1L, bytes / BYTES_PER_BUCKET));
+        long maxBuckets = Integer.MAX_VALUE / BUCKET_LONGS;
+        if (buckets > maxBuckets) {
+            buckets = Long.highestOneBit(maxBuckets);
+        }
+        table = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+        generation = 0;
+        resetStatistics();
+    }
+
+    public int getSizeMb() {
+        return (int) ((long) table.length * Long.BYTES / (1024L * 1024L));
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+        resetStatistics();
+    }
+
+    // Called once per search so that entries from older searches become preferred victims.
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    // Returns the packed data word for the key, or 0 when the position is not stored.
+    public long probe(long key) {
+        long[] slots = table;
+        int base = bucketBase(key);
+        boolean occupied = false;
+
+        for (int i = 0; i < BUCKET_SLOTS; i++) {
+            int index = base + i * SLOT_LONGS;
+            long data = slots[index + 1];
+            if (data == 0) {
+                continue;
+            }
+            if ((slots[index] ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied = true;
+        }
+
+        if (occupied) {
+            collisions.increment();
+        }
+        misses.increment();
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        long[] slots = table;
+        int base = bucketBase(key);
+        int currentGeneration = generation;
+
+        int victim = base;
+        int victimWorth = Integer.MAX_VALUE;
+
+        for (int i = 0; i < BUCKET_SLOTS; i++) {
+            int index = base + i * SLOT_LONGS;
+            long data = slots[index + 1];
+
+            if (data == 0) {
+                victim = index;
+                break;
+            }
+
+            if ((slots[index] ^ data) == key) {
+                // Same position: keep a deeper result from this search unless the new one is exact.
+                if (bound != BOUND_EXACT && generation(data) == currentGeneration && depth(data) > depth + 2) {
+                    return;
+                }
+                if (move == 0) {
+                    move = move(data);
+                }
+                victim = index;
+                break;
+            }
+
+            // Depth-preferred, with entries from older searches aging out first.
+            int age = (currentGeneration - generation(data)) & 0xFF;
+            int worth = depth(data) - 8 * age;
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = index;
+            }
+        }
+
+        long data = pack(move, score, depth, bound, currentGeneration);
+        slots[victim] = key ^ data;
+        slots[victim + 1] = data;
+    }
+
+    // Share of the first thousand slots that hold an entry from the current search, in per mille.
+    public int hashfull() {
+        long[] slots = table;
+        int sampled = Math.min(1000, slots.length / SLOT_LONGS);
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            long data = slots[i * SLOT_LONGS + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return sampled == 0 ? 0 : used * 1000 / sampled;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    private int bucketBase(long key) {
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        int clampedDepth = Math.max(0, Math.min(255, depth));
+        return (move & ((1L << MOVE_BITS) - 1))
+                | ((long) (score & 0xFFFF) << SCORE_SHIFT)
+                | ((long) clampedDepth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT);
+    }
+
+    public static int move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & 0xFF);
+    }
+}
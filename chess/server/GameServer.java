@@ -0,0 +1,171 @@
+package server;
+
+import core.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hosts many games over a line-based TCP protocol, one (virtual) thread per connection:
+//   new [fen]               -> game <id>
+//   move <id> <uci>         -> ok <status> | illegal <reason>
+//   promote <id> <piece>    -> ok <status> | illegal <reason>
+//   fen <id>                -> fen <fen>
+//   close <id>              -> closed
+//   quit
+// Any game id may be used from any connection (one per player, say); games are removed by close or
+// when the connection that created them goes away.
+public class GameServer implements Closeable {
+    private static final int ACCEPT_BACKLOG = 4096;
+    // A failing accept (typically out of file descriptors) keeps failing until connections close,
+    // so the accept thread backs off between retries and only reports the failures periodically.
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 5;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+    private static final long ACCEPT_REPORT_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = VirtualThreads.newPerTaskExecutor("game-connection");
+    private final Map<Long, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextGameId = new AtomicLong(1);
+    private final Thread acceptThread;
+
+    public GameServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress());
+        acceptThread = new Thread(this::acceptLoop, "game-server-accept");
+        acceptThread.setDaemon(true);
+    }
+
+    public void start() {
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        long backoffMillis = 0;
+        long lastReport = System.nanoTime() - ACCEPT_REPORT_INTERVAL_NANOS;
+        int unreported = 0;
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                backoffMillis = 0;
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    break;
+                }
+                long now = System.nanoTime();
+                if (now - lastReport >= ACCEPT_REPORT_INTERVAL_NANOS) {
+                    String repeats = unreported > 0 ? " (" + unreported + " more failures since the last report)" : "";
+                    System.err.println("Accept failed: " + e.getMessage() + repeats);
+                    lastReport = now;
+                    unreported = 0;
+                } else {
+                    unreported++;
+                }
+                backoffMillis = Math.min(Math.max(backoffMillis * 2, MIN_ACCEPT_BACKOFF_MILLIS), MAX_ACCEPT_BACKOFF_MILLIS);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        List<Long> createdGames = new ArrayList<>();
+        try (LineConnection connection = new LineConnection(socket)) {
+            String line;
+            while ((line = connection.readLine()) != null) {
+                String reply = handle(line.trim(), createdGames);
+                if (reply == null) {
+                    break;
+                }
+                connection.writeLine(reply);
+                // Flush only when the client has nothing more queued, so pipelined commands share a packet.
+                if (!connection.hasBufferedInput()) {
+                    connection.flush();
+                }
+            }
+            connection.flush();
+        } catch (IOException e) {
+            // Client went away; its games are dropped below.
+        } finally {
+            for (Long id : createdGames) {
+                games.remove(id);
+            }
+        }
+    }
+
+    // Returns the reply line, or null to end the connection.
+    private String handle(String line, List<Long> createdGames) {
+        String[] tokens = line.split(" ", 3);
+        switch (tokens[0]) {
+            case "new" -> {
+                Board board;
+                try {
+                    board = Board.fromFen(tokens.length > 1 ? line.substring(4) : Board.STARTING_FEN);
+                } catch (IllegalArgumentException e) {
+                    return "error " + e.getMessage();
+                }
+                long id = nextGameId.getAndIncrement();
+                games.put(id, new GameSession(id, board));
+                createdGames.add(id);
+                return "game " + id;
+            }
+            case "move", "promote", "fen", "close" -> {
+                GameSession game = tokens.length > 1 ? games.get(parseId(tokens[1])) : null;
+                if (game == null) {
+                    return "error unknown game";
+                }
+                if (tokens[0].equals("fen")) {
+                    return "fen " + game.fen();
+                }
+                if (tokens[0].equals("close")) {
+                    games.remove(game.getId());
+                    createdGames.remove(Long.valueOf(game.getId()));
+                    return "closed";
+                }
+                if (tokens.length < 3) {
+                    return "error missing argument";
+                }
+                return tokens[0].equals("move") ? game.move(tokens[2]) : game.promote(tokens[2]);
+            }
+            case "quit" -> {
+                return null;
+            }
+            default -> {
+                return "error unknown command";
+            }
+        }
+    }
+
+    private static long parseId(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package server;
+
+import core.Board;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// One hosted game. Board is not thread-safe (turn, pending promotion, status message and the
+// bitboards all change together), and both players' connections may drive the same game, so every
+// access goes through the session lock. A ReentrantLock rather than synchronized keeps a blocked
+// virtual thread from pinning its carrier thread.
+public class GameSession {
+    private final long id;
+    private final Board board;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    GameSession(long id, Board board) {
+        this.id = id;
+        this.board = board;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    // Plays a move in UCI coordinates ("e2e4", "e7e8q") through the same validated path the GUI uses.
+    // A promotion without a piece letter leaves the pawn pending until promote() is called.
+    public String move(CharSequence uci) {
+        lock.lock();
+        try {
+            if (!isSquare(uci, 0) || !isSquare(uci, 2) || uci.length() > 5) {
+                return "error bad move " + uci;
+            }
+            int startX = '8' - uci.charAt(1);
+            int startY = uci.charAt(0) - 'a';
+            int endX = '8' - uci.charAt(3);
+            int endY = uci.charAt(2) - 'a';
+            if (!board.movePiece(startX, startY, endX, endY)) {
+                return "illegal " + board.getStatusMessage();
+            }
+            if (uci.length() == 5 && board.hasPendingPromotion()) {
+                board.promotePendingPawn(promotionName(uci.charAt(4)));
+            }
+            return "ok " + board.getStatusMessage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String promote(String pieceName) {
+        lock.lock();
+        try {
+            if (!board.promotePendingPawn(pieceName)) {
+                return "illegal No promotion pending.";
+            }
+            return "ok " + board.getStatusMessage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String fen() {
+        lock.lock();
+        try {
+            return board.toFen();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isSquare(CharSequence text, int offset) {
+        if (text.length() < offset + 2) {
+            return false;
+        }
+        char file = text.charAt(offset);
+        char rank = text.charAt(offset + 1);
+        return file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8';
+    }
+
+    private static String promotionName(char letter) {
+        return switch (letter) {
+            case 'r' -> "ROOK";
+            case 'b' -> "BISHOP";
+            case 'n' -> "KNIGHT";
+            default -> "QUEEN";
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+// ASCII line I/O over a socket with small fixed buffers. Readers and writers from java.io would
+// cost about 48 KB of buffers per connection, which adds up to gigabytes at tens of thousands of
+// connections; protocol lines are short, so a few hundred bytes each way is plenty.
+final class LineConnection implements Closeable {
+    private static final int BUFFER_SIZE = 256;
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final byte[] readBuffer = new byte[BUFFER_SIZE];
+    private final byte[] writeBuffer = new byte[BUFFER_SIZE];
+    private int readPosition;
+    private int readLimit;
+    private int writePosition;
+
+    LineConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = socket.getInputStream();
+        this.out = socket.getOutputStream();
+    }
+
+    // Next line without its terminator, or null at end of stream.
+    String readLine() throws IOException {
+        StringBuilder longLine = null;
+        while (true) {
+            for (int i = readPosition; i < readLimit; i++) {
+                if (readBuffer[i] == '\n') {
+                    int end = i > readPosition && readBuffer[i - 1] == '\r' ? i - 1 : i;
+                    String line = ascii(readPosition, end);
+                    readPosition = i + 1;
+                    return longLine == null ? line : longLine.append(line).toString();
+                }
+            }
+
+            // No terminator buffered yet: keep what we have and read more.
+            if (readLimit > readPosition) {
+                if (longLine == null) {
+                    longLine = new StringBuilder();
+                }
+                longLine.append(ascii(readPosition, readLimit));
+            }
+            readPosition = 0;
+            readLimit = in.read(readBuffer);
+            if (readLimit < 0) {
+                readLimit = 0;
+                return longLine == null ? null : longLine.toString();
+            }
+        }
+    }
+
+    // True when another complete or partial line is already buffered, i.e. the peer is pipelining.
+    boolean hasBufferedInput() {
+        return readPosition < readLimit;
+    }
+
+    void writeLine(String line) throws IOException {
+        for (int i = 0; i < line.length(); i++) {
+            if (writePosition == BUFFER_SIZE) {
+                flush();
+            }
+            writeBuffer[writePosition++] = (byte) line.charAt(i);
+        }
+        if (writePosition == BUFFER_SIZE) {
+            flush();
+        }
+        writeBuffer[writePosition++] = '\n';
+    }
+
+    void flush() throws IOException {
+        if (writePosition > 0) {
+            out.write(writeBuffer, 0, writePosition);
+            writePosition = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    @SuppressWarnings("deprecation")
+    private String ascii(int start, int end) {
+        // The hibyte constructor copies bytes straight into a Latin-1 string without a decoder.
+        return new String(readBuffer, 0, start, end - start);
+    }
+}
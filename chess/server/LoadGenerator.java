@@ -0,0 +1,170 @@
+package server;
+
+import core.Board;
+import core.Move;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Plays many games against a GameServer at once, one connection and one (virtual) thread per game.
+// All games are created before the first move is sent, so every game is live on the server for the
+// whole measurement. Each client keeps its own Board to pick random legal moves, and every eighth
+// request is a deliberately illegal move the server has to reject. With a think time, each client pauses
+// a random 0.5x-1.5x of it before every move, like a player would; without one every game fires its
+// next move as soon as the reply arrives and the latencies mostly measure queueing.
+public class LoadGenerator {
+    private static final int ILLEGAL_MOVE_INTERVAL = 8;
+
+    private final String host;
+    private final int port;
+    private final int games;
+    private final int pliesPerGame;
+    private final long thinkMillis;
+    private final long seed;
+
+    public LoadGenerator(String host, int port, int games, int pliesPerGame, long thinkMillis, long seed) {
+        if (games < 1 || pliesPerGame < 1) {
+            throw new IllegalArgumentException("games and pliesPerGame must be positive");
+        }
+        this.host = host;
+        this.port = port;
+        this.games = games;
+        this.pliesPerGame = pliesPerGame;
+        this.thinkMillis = thinkMillis;
+        this.seed = seed;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        long[][] latencies = new long[games][];
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch created = new CountDownLatch(games);
+        CountDownLatch go = new CountDownLatch(1);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        ExecutorService clients = VirtualThreads.newPerTaskExecutor("load-client");
+        for (int i = 0; i < games; i++) {
+            int game = i;
+            SplittableRandom gameRandom = random.split();
+            clients.execute(() -> {
+                try {
+                    latencies[game] = playGame(gameRandom, created, go, rejected, errors);
+                } catch (IOException | RuntimeException e) {
+                    errors.incrementAndGet();
+                    latencies[game] = new long[0];
+                } catch (InterruptedException e) {
+                    latencies[game] = new long[0];
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        created.await();
+        long start = System.nanoTime();
+        go.countDown();
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.DAYS);
+        long elapsed = System.nanoTime() - start;
+
+        int total = 0;
+        for (long[] gameLatencies : latencies) {
+            total += gameLatencies.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] gameLatencies : latencies) {
+            System.arraycopy(gameLatencies, 0, all, offset, gameLatencies.length);
+            offset += gameLatencies.length;
+        }
+        return new LoadReport(games, all, rejected.get(), errors.get(), elapsed);
+    }
+
+    private long[] playGame(SplittableRandom random, CountDownLatch created, CountDownLatch go,
+                            AtomicLong rejected, AtomicLong errors) throws IOException, InterruptedException {
+        long[] latencies = new long[pliesPerGame + pliesPerGame / ILLEGAL_MOVE_INTERVAL + 1];
+        int requests = 0;
+
+        try (Socket socket = new Socket()) {
+            LineConnection connection;
+            String movePrefix;
+            try {
+                socket.connect(new InetSocketAddress(host, port));
+                connection = new LineConnection(socket);
+                String reply = request(connection, "new");
+                if (reply == null || !reply.startsWith("game ")) {
+                    throw new IOException("Cannot create game: " + reply);
+                }
+                movePrefix = "move " + reply.substring(5) + ' ';
+            } finally {
+                // Counted even on failure so the run never waits for a game that will not come.
+                created.countDown();
+            }
+            go.await();
+
+            Board board = Board.fromFen(Board.STARTING_FEN);
+            int[] moves = new int[Board.MAX_MOVES];
+            for (int ply = 0; ply < pliesPerGame; ply++) {
+                int count = board.generateLegalMoves(moves);
+                // The server ends drawn games too, after which every move would be rejected.
+                if (count == 0 || board.isDrawByRule()) {
+                    break;
+                }
+                if (thinkMillis > 0) {
+                    Thread.sleep(thinkMillis / 2 + random.nextLong(thinkMillis + 1));
+                }
+
+                if (ply % ILLEGAL_MOVE_INTERVAL == ILLEGAL_MOVE_INTERVAL - 1) {
+                    long sent = System.nanoTime();
+                    String reply = request(connection, movePrefix + illegalMove(random, moves, count));
+                    latencies[requests++] = System.nanoTime() - sent;
+                    if (reply != null && reply.startsWith("illegal")) {
+                        rejected.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+
+                int move = moves[random.nextInt(count)];
+                long sent = System.nanoTime();
+                String reply = request(connection, movePrefix + Move.toUci(move));
+                latencies[requests++] = System.nanoTime() - sent;
+                if (reply == null || !reply.startsWith("ok")) {
+                    errors.incrementAndGet();
+                    break;
+                }
+                board.makeMove(move);
+            }
+
+            request(connection, "quit");
+        }
+        return Arrays.copyOf(latencies, requests);
+    }
+
+    private static String request(LineConnection connection, String line) throws IOException {
+        connection.writeLine(line);
+        connection.flush();
+        return line.equals("quit") ? null : connection.readLine();
+    }
+
+    // A random from/to pair that is not among the legal moves.
+    private static String illegalMove(SplittableRandom random, int[] moves, int count) {
+        while (true) {
+            int from = random.nextInt(64);
+            int to = random.nextInt(64);
+            boolean legal = false;
+            for (int i = 0; i < count && !legal; i++) {
+                legal = Move.from(moves[i]) == from && Move.to(moves[i]) == to;
+            }
+            if (!legal && from != to) {
+                return Move.toUci(Move.encode(from, to, 0, 0));
+            }
+        }
+    }
+}
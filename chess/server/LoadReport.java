@@ -0,0 +1,64 @@
+package server;
+
+import java.util.Arrays;
+
+// Latency distribution of one load run: every move request's round trip, client send to reply.
+public final class LoadReport {
+    private final int games;
+    private final long[] latencyNanos;
+    private final long rejectedMoves;
+    private final long errors;
+    private final long elapsedNanos;
+
+    LoadReport(int games, long[] latencyNanos, long rejectedMoves, long errors, long elapsedNanos) {
+        this.games = games;
+        this.latencyNanos = latencyNanos;
+        this.rejectedMoves = rejectedMoves;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        Arrays.sort(latencyNanos);
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public long getRequests() {
+        return latencyNanos.length;
+    }
+
+    // Deliberately illegal moves that the server rejected, as expected.
+    public long getRejectedMoves() {
+        return rejectedMoves;
+    }
+
+    // Replies that disagreed with the client's own rules check, plus failed connections.
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long percentileNanos(double percentile) {
+        if (latencyNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * latencyNanos.length) - 1;
+        return latencyNanos[Math.max(0, Math.min(index, latencyNanos.length - 1))];
+    }
+
+    public double getRequestsPerSecond() {
+        return elapsedNanos > 0 ? latencyNanos.length * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d games, %d move requests (%d illegal rejected, %d errors) in %.3f s: %.0f requests/s%n"
+                        + "latency p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                games, getRequests(), rejectedMoves, errors, elapsedNanos / 1_000_000_000.0, getRequestsPerSecond(),
+                percentileNanos(50) / 1e6, percentileNanos(99) / 1e6, percentileNanos(99.9) / 1e6,
+                percentileNanos(100) / 1e6);
+    }
+}
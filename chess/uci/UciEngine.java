@@ -0,0 +1,374 @@
+package uci;
+
+import book.PolyglotBook;
+import core.Board;
+import core.Move;
+import endgame.Bitbases;
+import pieces.PieceColor;
+import search.LazySmpSearch;
+import search.Search;
+import search.SearchLimits;
+import search.SearchResult;
+import search.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless UCI front end. The input thread only parses commands; searches run on their own thread,
+// so "stop" and "isready" are answered while a search is in progress.
+public class UciEngine {
+    private static final String NAME = "Chess Engine";
+    private static final int DEFAULT_HASH_MB = 64;
+    private static final int MAX_HASH_MB = 16384;
+    private static final int MAX_THREADS = 512;
+    // Safety margin for GUI and transport latency when playing on a clock.
+    private static final long MOVE_OVERHEAD_MILLIS = 30;
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final BufferedReader input;
+    private final PrintStream output;
+    private final TranspositionTable transpositionTable = new TranspositionTable(DEFAULT_HASH_MB);
+    private final LazySmpSearch search = new LazySmpSearch(transpositionTable, 1);
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "uci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Board board = Board.fromFen(Board.STARTING_FEN);
+    private final int[] moveBuffer = new int[Board.MAX_MOVES];
+    private final SplittableRandom bookRandom = new SplittableRandom();
+
+    private Future<?> runningSearch;
+    // Set by "stop"; the search thread re-checks it in case the stop raced with the search start.
+    private volatile boolean stopRequested;
+    // Released by "stop" so an infinite search may report its best move.
+    private volatile CountDownLatch infiniteRelease;
+
+    private boolean ownBook;
+    private String bookFile = "";
+    private PolyglotBook book;
+
+    public UciEngine(BufferedReader input, PrintStream output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    public void run() throws IOException {
+        String line;
+        while ((line = input.readLine()) != null) {
+            if (!handle(line.trim())) {
+                break;
+            }
+        }
+        stopSearch();
+        waitForSearch();
+        searchThread.shutdownNow();
+        search.shutdown();
+    }
+
+    // Returns false on "quit".
+    boolean handle(String line) {
+        if (line.isEmpty()) {
+            return true;
+        }
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name " + NAME);
+                send("id author chess engine contributors");
+                send("option name Hash type spin default " + DEFAULT_HASH_MB + " min 1 max " + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name OwnBook type check default false");
+                send("option name BookFile type string default <empty>");
+                send("option name BitbasePath type string default <empty>");
+                send("uciok");
+            }
+            case "isready" -> send("readyok");
+            case "ucinewgame" -> {
+                stopAndWait();
+                transpositionTable.clear();
+            }
+            case "setoption" -> {
+                stopAndWait();
+                setOption(tokens);
+            }
+            case "position" -> {
+                stopAndWait();
+                setPosition(tokens);
+            }
+            case "go" -> {
+                stopAndWait();
+                go(tokens);
+            }
+            case "stop" -> stopSearch();
+            case "quit" -> {
+                return false;
+            }
+            default -> {
+                // Unknown commands are ignored, as the protocol asks.
+            }
+        }
+        return true;
+    }
+
+    private void setOption(String[] tokens) {
+        StringBuilder name = new StringBuilder();
+        StringBuilder value = new StringBuilder();
+        StringBuilder target = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if ("name".equals(tokens[i]) && target == null) {
+                target = name;
+            } else if ("value".equals(tokens[i]) && target == name) {
+                target = value;
+            } else if (target != null) {
+                if (target.length() > 0) {
+                    target.append(' ');
+                }
+                target.append(tokens[i]);
+            }
+        }
+
+        String text = value.toString();
+        try {
+            switch (name.toString().toLowerCase()) {
+                case "hash" -> transpositionTable.resize(clamp(Integer.parseInt(text), 1, MAX_HASH_MB));
+                case "threads" -> search.setThreads(clamp(Integer.parseInt(text), 1, MAX_THREADS));
+                case "ownbook" -> {
+                    ownBook = Boolean.parseBoolean(text);
+                    loadBook();
+                }
+                case "bookfile" -> {
+                    bookFile = emptyIfUnset(text);
+                    loadBook();
+                }
+                case "bitbasepath" -> {
+                    String directory = emptyIfUnset(text);
+                    search.setBitbases(directory.isEmpty() ? null : Bitbases.open(Path.of(directory)));
+                }
+                default -> send("info string unknown option " + name);
+            }
+        } catch (NumberFormatException | IOException e) {
+            send("info string cannot set " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void loadBook() throws IOException {
+        book = null;
+        if (ownBook && !bookFile.isEmpty()) {
+            book = PolyglotBook.open(Path.of(bookFile));
+        }
+    }
+
+    // position [startpos | fen <fen>] [moves <move>...]
+    private void setPosition(String[] tokens) {
+        int i = 1;
+        try {
+            if (i < tokens.length && "startpos".equals(tokens[i])) {
+                board.resetFromFen(Board.STARTING_FEN);
+                i++;
+            } else if (i < tokens.length && "fen".equals(tokens[i])) {
+                StringBuilder fen = new StringBuilder();
+                for (i++; i < tokens.length && !"moves".equals(tokens[i]); i++) {
+                    fen.append(tokens[i]).append(' ');
+                }
+                board.resetFromFen(fen);
+            } else {
+                send("info string expected startpos or fen");
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            board.resetFromFen(Board.STARTING_FEN);
+            return;
+        }
+
+        if (i < tokens.length && "moves".equals(tokens[i])) {
+            for (i++; i < tokens.length; i++) {
+                int move = parseMove(tokens[i]);
+                if (move == Move.NONE) {
+                    send("info string illegal move " + tokens[i]);
+                    return;
+                }
+                board.makeMove(move);
+            }
+        }
+    }
+
+    private int parseMove(String uci) {
+        int count = board.generateLegalMoves(moveBuffer);
+        for (int i = 0; i < count; i++) {
+            if (Move.toUci(moveBuffer[i]).equals(uci)) {
+                return moveBuffer[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    // go [depth N] [nodes N] [movetime MS] [wtime MS] [btime MS] [winc MS] [binc MS] [movestogo N] [infinite]
+    private void go(String[] tokens) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = -1;
+        long blackTime = -1;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Integer.parseInt(argument(tokens, ++i));
+                    case "nodes" -> nodes = Long.parseLong(argument(tokens, ++i));
+                    case "movetime" -> moveTime = Long.parseLong(argument(tokens, ++i));
+                    case "wtime" -> whiteTime = Long.parseLong(argument(tokens, ++i));
+                    case "btime" -> blackTime = Long.parseLong(argument(tokens, ++i));
+                    case "winc" -> whiteIncrement = Long.parseLong(argument(tokens, ++i));
+                    case "binc" -> blackIncrement = Long.parseLong(argument(tokens, ++i));
+                    case "movestogo" -> movesToGo = Integer.parseInt(argument(tokens, ++i));
+                    case "infinite", "ponder" -> infinite = true;
+                    default -> {
+                        // searchmoves, mate and other unsupported parameters are ignored.
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            send("info string bad go parameter: " + e.getMessage());
+        }
+
+        if (moveTime == 0 && !infinite) {
+            boolean white = board.getCurrentTurn() == PieceColor.WHITE;
+            long remaining = white ? whiteTime : blackTime;
+            if (remaining >= 0) {
+                moveTime = allocateTime(remaining, white ? whiteIncrement : blackIncrement, movesToGo);
+            }
+        }
+
+        SearchLimits limits = new SearchLimits(depth, nodes, moveTime);
+        stopRequested = false;
+        infiniteRelease = infinite ? new CountDownLatch(1) : null;
+        CountDownLatch release = infiniteRelease;
+        runningSearch = searchThread.submit(() -> runSearch(limits, release));
+    }
+
+    private void runSearch(SearchLimits limits, CountDownLatch infiniteRelease) {
+        int bestMove = Move.NONE;
+        int ponderMove = Move.NONE;
+
+        if (book != null) {
+            bestMove = book.pickMove(board, bookRandom);
+            if (bestMove != Move.NONE) {
+                send("info string book move " + Move.toUci(bestMove));
+            }
+        }
+
+        if (bestMove == Move.NONE) {
+            search.setIterationListener(result -> {
+                if (stopRequested) {
+                    search.stop();
+                }
+                send(infoLine(result));
+            });
+            if (stopRequested) {
+                search.stop();
+            }
+            SearchResult result = search.search(board, limits);
+            bestMove = result.getBestMove();
+            int[] pv = result.getPrincipalVariation();
+            ponderMove = pv.length > 1 ? pv[1] : Move.NONE;
+        }
+
+        // In infinite mode the best move may only be reported after "stop".
+        if (infiniteRelease != null) {
+            try {
+                infiniteRelease.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (bestMove == Move.NONE) {
+            send("bestmove 0000");
+        } else if (ponderMove == Move.NONE) {
+            send("bestmove " + Move.toUci(bestMove));
+        } else {
+            send("bestmove " + Move.toUci(bestMove) + " ponder " + Move.toUci(ponderMove));
+        }
+    }
+
+    private String infoLine(SearchResult result) {
+        int score = result.getScore();
+        String scoreText;
+        if (Search.isMateScore(score)) {
+            int movesToMate = score > 0 ? (Search.MATE - score + 1) / 2 : -(Search.MATE + score) / 2;
+            scoreText = "mate " + movesToMate;
+        } else {
+            scoreText = "cp " + score;
+        }
+        return "info depth " + result.getDepth() + " score " + scoreText + " nodes " + result.getNodes()
+                + " nps " + result.getNodesPerSecond() + " time " + result.getElapsedMillis()
+                + " hashfull " + transpositionTable.hashfull() + " pv " + result.principalVariationString();
+    }
+
+    private void stopSearch() {
+        stopRequested = true;
+        search.stop();
+        CountDownLatch release = infiniteRelease;
+        if (release != null) {
+            release.countDown();
+        }
+    }
+
+    private void stopAndWait() {
+        if (runningSearch != null && !runningSearch.isDone()) {
+            stopSearch();
+        }
+        waitForSearch();
+    }
+
+    private void waitForSearch() {
+        if (runningSearch == null) {
+            return;
+        }
+        try {
+            runningSearch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            send("info string search failed: " + e.getCause());
+        }
+        runningSearch = null;
+    }
+
+    private static long allocateTime(long remaining, long increment, int movesToGo) {
+        int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        long time = remaining / moves + increment * 3 / 4;
+        return Math.max(1, Math.min(time, remaining - MOVE_OVERHEAD_MILLIS));
+    }
+
+    private static String argument(String[] tokens, int index) {
+        return index < tokens.length ? tokens[index] : "";
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static String emptyIfUnset(String value) {
+        return "<empty>".equals(value) ? "" : value;
+    }
+
+    private synchronized void send(String line) {
+        output.println(line);
+        output.flush();
+    }
+}